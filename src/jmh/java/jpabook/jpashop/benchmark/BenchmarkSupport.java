@@ -0,0 +1,112 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크 공통
+ *  - 임베디드 H2(메모리) 로 애플리케이션 컨텍스트 기동
+ *  - 주문 수 x 주문당 상품 수 만큼 데이터 적재
+ */
+final class BenchmarkSupport {
+
+    static final int ITEM_COUNT = 100;
+    private static final int ORDERS_PER_MEMBER = 10;
+    private static final int CHUNK_SIZE = 500;
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.add("spring.jpa.properties.hibernate.generate_statistics=true");
+        properties.add("spring.jpa.properties.hibernate.format_sql=false");
+        properties.add("logging.level.org.hibernate.SQL=warn");
+        properties.add("decorator.datasource.p6spy.enable-logging=false");
+        properties.addAll(List.of(extraProperties));
+
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(new String[0]))
+                .run();
+    }
+
+    /**
+     * 주문 데이터 적재
+     *  - 회원 1명당 주문 10개, 상품은 ITEM_COUNT 개를 돌아가며 사용
+     */
+    static void seedOrders(EntityManagerFactory emf, int orders, int itemsPerOrder) {
+        List<Long> itemIds = seedItems(emf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Member member = null;
+            for (int i = 0; i < orders; i++) {
+                if (i % ORDERS_PER_MEMBER == 0) {
+                    member = createMember("member" + i);
+                    em.persist(member);
+                }
+
+                OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                for (int j = 0; j < itemsPerOrder; j++) {
+                    Item item = em.find(Item.class, itemIds.get((i + j) % itemIds.size()));
+                    orderItems[j] = OrderItem.createOrderItem(item, item.getPrice(), 1);
+                }
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                em.persist(Order.createOrder(member, delivery, orderItems));
+
+                if ((i + 1) % CHUNK_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                    member = em.find(Member.class, member.getId());
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    static List<Long> seedItems(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Long> itemIds = new ArrayList<>();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000 + i * 100);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                itemIds.add(book.getId());
+            }
+            em.getTransaction().commit();
+            return itemIds;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "1", "1111"));
+        return member;
+    }
+}
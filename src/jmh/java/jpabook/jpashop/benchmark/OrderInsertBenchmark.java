@@ -0,0 +1,72 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderLineDto;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 저장 성능 (시퀀스 블록 크기별)
+ *  - allocationSize 1 : insert 마다 시퀀스 호출
+ *  - allocationSize 50 : 시퀀스 호출 1번으로 id 50개 예약 (pooled-lo)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=OrderInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderInsertBenchmark {
+
+    private static final String[] SEQUENCES = {
+            "member_seq", "orders_seq", "order_item_seq", "delivery_seq", "item_seq", "category_seq"};
+
+    @Param({"1", "50"})
+    int allocationSize;
+
+    @Param({"1", "20"})
+    int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Long memberId;
+    private List<OrderLineDto> orderLines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] properties = new String[SEQUENCES.length];
+        for (int i = 0; i < SEQUENCES.length; i++) {
+            properties[i] = "spring.jpa.properties.jpashop.id." + SEQUENCES[i] + ".increment_size=" + allocationSize;
+        }
+        context = BenchmarkSupport.start(properties);
+        orderService = context.getBean(OrderService.class);
+
+        List<Long> itemIds = BenchmarkSupport.seedItems(context.getBean(EntityManagerFactory.class));
+        orderLines = new ArrayList<>();
+        for (int i = 0; i < itemsPerOrder; i++) {
+            orderLines.add(new OrderLineDto(itemIds.get(i), 1));
+        }
+
+        Member member = new Member();
+        member.setName("benchmark");
+        member.setAddress(new Address("서울", "1", "1111"));
+        memberId = context.getBean(MemberService.class).join(member);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long order() {
+        return orderService.order(memberId, orderLines);
+    }
+}
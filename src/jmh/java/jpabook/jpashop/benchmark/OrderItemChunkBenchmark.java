@@ -0,0 +1,63 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * V5 (findAllByDto_optimization) orderItem IN 절 청크 크기, 동시 실행 수 비교
+ *  - chunkSize 가 주문 수 이상이면 IN 절 1번 (기존 방식)
+ *  - sqlPerOp : 호출당 SQL 수 = 루트 1 + 청크 수
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=OrderItemChunkBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderItemChunkBenchmark {
+
+    @Param({"20000"})
+    int orders;
+
+    @Param({"5"})
+    int itemsPerOrder;
+
+    @Param({"100", "500", "1000", "5000", "20000"})
+    int chunkSize;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private OrderQueryRepository orderQueryRepository;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "jpashop.query.in-chunk-size=" + chunkSize,
+                "jpashop.query.in-parallelism=" + parallelism);
+        BenchmarkSupport.seedOrders(context.getBean(EntityManagerFactory.class), orders, itemsPerOrder);
+
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findAllByDto_optimization(OrderQueryBenchmark.SqlCounter counter, Blackhole bh) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(orderQueryRepository.findAllByDto_optimization());
+        counter.record(statistics.getPrepareStatementCount() - before);
+    }
+}
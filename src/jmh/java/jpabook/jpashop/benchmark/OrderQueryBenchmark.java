@@ -0,0 +1,182 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 전략별 성능 비교 (OrderApiController V1 ~ V6, OrderSimpleApiController V1 ~ V4)
+ *  - throughput : 초당 처리 횟수
+ *  - gc.alloc.rate.norm : 호출당 할당량 (-prof gc, build.gradle 에 기본 설정)
+ *  - sqlPerOp : 호출당 실행된 SQL 수 (Hibernate Statistics)
+ *
+ * 엔티티 조회 전략은 DTO 변환 시점과 동일하게 트랜잭션 안에서 연관관계를 모두 초기화한다.
+ *
+ * 실행 : ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderQueryBenchmark {
+
+    @Param({"100", "1000"})
+    int orders;
+
+    @Param({"2", "10"})
+    int itemsPerOrder;
+
+    @Param({"100"})
+    int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seedOrders(context.getBean(EntityManagerFactory.class), orders, itemsPerOrder);
+
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * V1, V2 : 엔티티 조회 + 지연 로딩 (batch fetch size 적용)
+     */
+    @Benchmark
+    public void findAllByString(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> readOnlyTx.execute(status ->
+                initialize(orderRepository.findAllByString(new OrderSearch())))));
+    }
+
+    /**
+     * V3 : 컬렉션 fetch join
+     */
+    @Benchmark
+    public void findAllWithItem(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> readOnlyTx.execute(status ->
+                initialize(orderRepository.findAllWithItem()))));
+    }
+
+    /**
+     * V3.1 : ToOne fetch join + offset 페이징 + 컬렉션 batch fetch
+     */
+    @Benchmark
+    public void findAllWithMemberDelivery(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> readOnlyTx.execute(status ->
+                initialize(orderRepository.findAllWithMemberDelivery(0, pageSize)))));
+    }
+
+    /**
+     * V4 : DTO 직접 조회, 컬렉션 N 번 조회
+     */
+    @Benchmark
+    public void findOrderQueryDtos(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findOrderQueryDtos()));
+    }
+
+    /**
+     * V5 : DTO 직접 조회, 컬렉션 IN 절 1 번 조회
+     */
+    @Benchmark
+    public void findAllByDto_optimization(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findAllByDto_optimization()));
+    }
+
+    /**
+     * V6 : DTO 직접 조회, 플랫 데이터 1 번 조회
+     */
+    @Benchmark
+    public void findAllByDto_flat(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findAllByDto_flat()));
+    }
+
+    /**
+     * simple-orders V3 : ToOne fetch join
+     */
+    @Benchmark
+    public void findAllWithMemberDelivery_simple(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> readOnlyTx.execute(status ->
+                orderRepository.findAllWithMemberDelivery())));
+    }
+
+    /**
+     * simple-orders V4 : DTO 직접 조회
+     */
+    @Benchmark
+    public void findOrderDtos(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderSimpleQueryRepository.findOrderDtos()));
+    }
+
+    private <T> T measure(SqlCounter counter, Supplier<T> call) {
+        long before = statistics.getPrepareStatementCount();
+        T result = call.get();
+        counter.record(statistics.getPrepareStatementCount() - before);
+        return result;
+    }
+
+    /**
+     * DTO 변환 시 건드리는 연관관계를 모두 초기화
+     */
+    private static List<Order> initialize(List<Order> orders) {
+        for (Order order : orders) {
+            order.getMember().getName();
+            order.getDelivery().getAddress();
+            order.getOrderItems().forEach(orderItem -> orderItem.getItem().getName());
+        }
+        return orders;
+    }
+
+    /**
+     * 호출당 SQL 실행 수
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+
+        private long statements;
+        private long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            invocations = 0;
+        }
+
+        void record(long count) {
+            statements += count;
+            invocations++;
+        }
+
+        public double sqlPerOp() {
+            return invocations == 0 ? 0 : (double) statements / invocations;
+        }
+    }
+}
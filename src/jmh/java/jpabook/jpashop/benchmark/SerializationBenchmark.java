@@ -0,0 +1,122 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 목록 응답 형식별 직렬화 성능, 크기 비교 (JSON, CBOR, Smile)
+ *  - OrderApiController V4 ~ V6 의 Result<List<OrderQueryDto>> 와 같은 모양, DB 조회 X
+ *  - throughput : 초당 직렬화 / 역직렬화 횟수
+ *  - bytesPerOp : 응답 크기
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=SerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SerializationBenchmark {
+
+    private static final String[] CITIES = {"서울", "부산", "인천", "대구", "대전"};
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"100", "1000"})
+    int orders;
+
+    @Param({"3"})
+    int itemsPerOrder;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> result;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = objectMapper(format);
+
+        List<OrderQueryDto> data = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            OrderQueryDto order = new OrderQueryDto((long) i, "member" + (i % 100), LocalDateTime.now().minusMinutes(i),
+                    OrderStatus.ORDER, new Address(CITIES[i % CITIES.length], "street" + (i % 50), "123-123"));
+            List<OrderItemQueryDto> orderItems = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                orderItems.add(new OrderItemQueryDto((long) i, "JPA BOOK" + ((i + j) % 20), 10000 + j * 1000, 1 + j));
+            }
+            order.setOrderItems(orderItems);
+            data.add(order);
+        }
+        result = Map.of("data", data);
+        serialized = objectMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadCounter counter) throws Exception {
+        byte[] bytes = objectMapper.writeValueAsBytes(result);
+        counter.record(bytes.length);
+        return bytes;
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws Exception {
+        return objectMapper.readTree(serialized);
+    }
+
+    /**
+     * 애플리케이션의 HttpMessageConverter 와 같은 설정 (ApiWebConfig)
+     */
+    private static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "json":
+                return Jackson2ObjectMapperBuilder.json().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile":
+                SmileFactory smileFactory = new SmileFactory();
+                smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+                return Jackson2ObjectMapperBuilder.json().factory(smileFactory).build();
+            default:
+                throw new IllegalArgumentException("format=" + format);
+        }
+    }
+
+    /**
+     * 직렬화 결과 크기
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadCounter {
+
+        private long bytes;
+        private long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            invocations = 0;
+        }
+
+        void record(long length) {
+            bytes += length;
+            invocations++;
+        }
+
+        public double bytesPerOp() {
+            return invocations == 0 ? 0 : (double) bytes / invocations;
+        }
+    }
+}
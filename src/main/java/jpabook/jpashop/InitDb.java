@@ -3,6 +3,7 @@ package jpabook.jpashop;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +18,12 @@ import javax.persistence.EntityManager;
  * userB
  *  * SPRING1 BOOK
  *  * SPRING2 BOOK
+ *
+ * datagen 프로파일에서는 DataGenerator 가 대신 데이터를 만든다.
  */
 @RequiredArgsConstructor
 @Component
+@Profile("!datagen")
 public class InitDb {
 
     private final InitService initService;
@@ -32,6 +36,7 @@ public class InitDb {
 
     @RequiredArgsConstructor
     @Component
+    @Profile("!datagen")
     @Transactional
     static class InitService {
 
@@ -54,6 +59,7 @@ public class InitDb {
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.of(order));
         }
 
         public void dbInit2() {
@@ -73,6 +79,7 @@ public class InitDb {
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.of(order));
         }
 
         private Book createBook(String name, int price, int stockQuantity) {
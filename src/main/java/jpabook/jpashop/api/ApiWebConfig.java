@@ -0,0 +1,54 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jpabook.jpashop.service.ChangeVersions;
+import jpabook.jpashop.service.ChangeVersions.Aggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class ApiWebConfig implements WebMvcConfigurer {
+
+    private final ChangeVersions changeVersions;
+
+    /**
+     * 조회 API ETag
+     *  - 회원 목록 : 회원
+     *  - 주문 목록 : 주문 + 회원(이름, 주소) + 상품(이름)
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(changeVersions, new Aggregate[]{Aggregate.MEMBER}))
+                .addPathPatterns("/api/*/members");
+        registry.addInterceptor(new ConditionalGetInterceptor(changeVersions,
+                        new Aggregate[]{Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM}))
+                .addPathPatterns("/api/*/orders", "/api/*/simple-orders");
+    }
+
+    /**
+     * 바이너리 응답 (Accept: application/cbor, application/x-jackson-smile)
+     *  - JSON 과 같은 ObjectMapper 설정 (spring.jackson.*, Hibernate5Module 등) 사용
+     *  - 필드 이름을 반복하는 큰 목록에서 응답 크기, 직렬화 비용 감소 (SerializationBenchmark)
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // 같은 문자열 값(회원 이름, 도시, 상품명)은 한 번만 쓰고 참조
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory).build());
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.ChangeVersions;
+import jpabook.jpashop.service.ChangeVersions.Aggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * 조회 API 조건부 GET (ETag, If-None-Match)
+ *  - ETag 는 조회 대상 애그리거트의 변경 버전 -> 본문을 만들지 않고 계산
+ *  - If-None-Match 가 같으면 컨트롤러를 실행하지 않고 304 (DB 조회 X)
+ *  - 버전을 컨트롤러 실행 전에 읽으므로, 실행 중 변경되면 다음 요청에서 새 본문을 받는다.
+ *  - 응답 형식(Accept 로 고른 JSON, CBOR, Smile)마다 ETag 가 다르다. (다른 형식의 ETag 로는 304 X)
+ */
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final ChangeVersions changeVersions;
+    private final Aggregate[] aggregates;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+
+        String etag = changeVersions.etag(format(request.getHeader(HttpHeaders.ACCEPT)), aggregates);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");     // 캐시해도 되지만 매번 재검증
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);       // JSON, CBOR, Smile 은 캐시에서 따로
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Accept 에서 우선순위가 가장 높은 지원 형식 (메시지 컨버터 순서와 같이 */* 는 JSON)
+     */
+    static String format(String accept) {
+        if (accept == null) {
+            return "json";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                return "smile";
+            }
+        }
+        return "json";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = etag.substring(2);   // 약한 비교 : W/ 는 무시
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(opaqueTag) || tag.equals("W/" + opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@RestController
+public class ItemApiController {
+
+    private final ItemImportService itemImportService;
+    private final ItemService itemService;
+
+    /**
+     * 상품 대량 등록 (CSV)
+     *  - 요청 본문을 스트리밍으로 읽으면서 chunk 단위로 커밋
+     *  - 응답 : 성공, 실패 건수와 실패한 줄 번호, 사유
+     */
+    @PostMapping(value = "/api/v1/items/import", consumes = "text/csv")
+    public ItemImportResult importItemsCsv(InputStream body) throws IOException {
+        return itemImportService.importCsv(body);
+    }
+
+    /**
+     * 상품 대량 등록 (NDJSON, 한 줄에 상품 하나)
+     */
+    @PostMapping(value = "/api/v1/items/import", consumes = "application/x-ndjson")
+    public ItemImportResult importItemsNdjson(InputStream body) throws IOException {
+        return itemImportService.importNdjson(body);
+    }
+
+    /**
+     * 재고 대량 증감
+     *  - 상품 조회 없이 UPDATE batch 로 처리, 상품별 결과(APPLIED, NOT_FOUND, NOT_ENOUGH_STOCK, STOCK_OVERFLOW) 응답
+     *  - 같은 상품의 증감 합계가 int 범위를 넘으면 400
+     */
+    @PatchMapping("/api/v1/items/stock")
+    public AdjustStockResponse adjustStocks(@RequestBody @Valid AdjustStockRequest request) {
+        List<StockAdjustmentDto> adjustments = request.getAdjustments().stream()
+                .map(line -> new StockAdjustmentDto(line.getItemId(), line.getDelta()))
+                .collect(Collectors.toList());
+        List<StockAdjustmentResult> results;
+        try {
+            results = itemService.adjustStocks(adjustments);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        long applied = results.stream()
+                .filter(result -> result.getStatus() == StockAdjustmentResult.Status.APPLIED)
+                .count();
+        return new AdjustStockResponse(applied, results.size() - applied, results);
+    }
+
+    @Data
+    static class AdjustStockRequest {
+        @NotEmpty @Valid
+        private List<StockAdjustmentLine> adjustments;
+    }
+
+    @Data
+    static class StockAdjustmentLine {
+        @NotNull
+        private Long itemId;
+        @NotNull
+        private Integer delta;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class AdjustStockResponse {
+        private long applied;
+        private long failed;
+        private List<StockAdjustmentResult> data;
+    }
+}
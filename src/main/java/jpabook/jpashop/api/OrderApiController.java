@@ -1,25 +1,36 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
-import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderFlatGrouping;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderLineDto;
+import jpabook.jpashop.service.OrderService;
 import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,13 +46,15 @@ import java.util.stream.Collectors;
  * V3. 엔티티를 조회해서 DTO 로 변환(fetch join 사용 O)
  *  - 기본적으로 collection fetch join 을 사용할 경우, 페이징 불가!
  *  - 페이징 시에는 N 부분을 포기해야 함(대신에 batch fetch size? 옵션 주면 N -> 1 쿼리로 변경 가능)
+ *  - V3.1 offset 페이징, V3.2 커서 페이징
  *
  * V4. JPA 에서 DTO 로 바로 조회, 컬렉션 N 조회 (1 + N Query)
  *  - 페이징 가능
  * V5. JPA 에서 DTO 로 바로 조회, 컬렉션 1 조회 최적화 버전 (1 + 1 Query)
  *  - 페이징 가능
  * V6. JPA 에서 DTO로 바로 조회, 플랫 데이터(1Query) (1 Query)
- *  - 페이징 불가능
+ *  - 플랫 데이터 자체로는 페이징 불가능 -> V6.1 주문 id 먼저 페이징 (2 Query)
+ *  - 전체 내보내기는 NDJSON 스트리밍 (/api/v6/orders/export)
  */
 @RequiredArgsConstructor
 @RestController
@@ -49,6 +62,8 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     /**
      * V1. 엔티티 직접 노출
@@ -104,6 +119,28 @@ public class OrderApiController {
         return new Result(collect);
     }
 
+    /**
+     * V3.2 엔티티를 조회해서 DTO 로 변환 커서 페이징
+     *  - offset 대신 마지막 행의 (orderDate, orderId) 커서 다음부터 조회 -> 뒤 페이지도 첫 페이지와 비용 동일
+     *  - 컬렉션은 V3.1 과 동일하게 hibernate.default_batch_fetch_size 로 최적화
+     *  - 다음 페이지가 없으면 next 는 null
+     *  - limit 이 범위(1 ~ PageParams.MAX_LIMIT)를 벗어나거나 커서가 잘못되면 400
+     */
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult ordersV3_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.validateLimit(limit);
+        OrderCursor after = StringUtils.hasText(cursor) ? decodeCursor(cursor) : null;
+        List<Order> orders = orderRepository.findAllWithMemberDeliveryAfter(after, limit);
+
+        List<OrderDto> collect = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+
+        String next = orders.size() < limit ? null : OrderCursor.of(orders.get(orders.size() - 1)).encode();
+        return new CursorResult(collect, next);
+    }
+
     @GetMapping("/api/v4/orders")
     public Result ordersV4() {
         List<OrderQueryDto> orderQueryDtos = orderQueryRepository.findOrderQueryDtos();
@@ -119,38 +156,93 @@ public class OrderApiController {
     /**
      * 쿼리 : 딱 1번
      *  - 쿼리는 한 번이지만 조인으로 인해 DB에서 애플리케이션에 전달하는 데이터에 중복 데이터 추가
-     *  - 페이징 불가능
+     *  - order_id 순으로 받아서 한 번 순회로 주문 단위로 묶음 (OrderFlatGrouping)
      */
     @GetMapping("/api/v6/orders")
     public Result ordersV6() {
-        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
-
-        Comparator<OrderQueryDto> comparator = new Comparator<OrderQueryDto>() {
-            @Override
-            public int compare(OrderQueryDto o1, OrderQueryDto o2) {
-                if (o1.getOrderId() > o2.getOrderId())
-                    return 1;
-                else if (o1.getOrderId() < o2.getOrderId())
-                    return -1;
-                else
-                    return 0;
+        List<OrderQueryDto> collect = orderQueryRepository.findAllByDto_flat().stream()
+                .collect(OrderFlatGrouping.toOrderQueryDtos());
+
+        return new Result(collect);
+    }
+
+    /**
+     * V6.1 플랫 데이터 커서 페이징
+     *  - 주문 id 를 먼저 커서 페이징해서 조회한 뒤 플랫 조회 (쿼리 2번)
+     *  - after(이전 페이지의 next, 마지막 주문 id) 다음부터, 없으면 첫 페이지
+     *  - 다음 페이지가 없으면 next 는 null
+     */
+    @GetMapping("/api/v6.1/orders")
+    public CursorResult ordersV6_page(@RequestParam(value = "after", defaultValue = "0") long after,
+                                      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.validateLimit(limit);
+        List<Long> orderIds = orderQueryRepository.findOrderIdsAfter(after, limit);
+        List<OrderQueryDto> collect = orderQueryRepository.findAllByDto_flat(orderIds).stream()
+                .collect(OrderFlatGrouping.toOrderQueryDtos());
+
+        // 주문상품이 없는 주문은 collect 에 없으므로 다음 커서는 주문 id 페이지로
+        String next = orderIds.size() < limit ? null : String.valueOf(orderIds.get(orderIds.size() - 1));
+        return new CursorResult(collect, next);
+    }
+
+    /**
+     * V6 전체 내보내기 (NDJSON 스트리밍)
+     *  - 주문 하나를 OrderQueryDto 로 묶는 즉시 한 줄로 응답에 쓴다.
+     *  - 결과를 List 에 모으지 않으므로 주문 수와 상관없이 메모리 사용량 일정
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = "application/x-ndjson")
+    public StreamingResponseBody ordersV6_export() {
+        return out -> orderQueryRepository.streamAllByDto_flat(order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        };
-
-        List<OrderQueryDto> collect = flats.stream()
-                .collect(Collectors.groupingBy(o -> new OrderQueryDto(
-                                o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        Collectors.mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()),
-                                Collectors.toList()))).entrySet().stream()
-                .map(e -> new OrderQueryDto(
-                        e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress(), e.getValue()))
+        });
+    }
+
+    /**
+     * 주문 (장바구니)
+     *  - 여러 상품을 주문 하나, 트랜잭션 하나로 처리
+     */
+    @PostMapping("/api/v1/orders")
+    public CreateOrderResponse saveOrder(@RequestBody @Valid CreateOrderRequest request) {
+        List<OrderLineDto> orderLines = request.getOrderItems().stream()
+                .map(line -> new OrderLineDto(line.getItemId(), line.getCount()))
                 .collect(Collectors.toList());
+        Long orderId = orderService.order(request.getMemberId(), orderLines);
+        return new CreateOrderResponse(orderId);
+    }
 
-        collect.sort(comparator);
+    private static OrderCursor decodeCursor(String cursor) {
+        try {
+            return OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty @Valid
+        private List<OrderLineRequest> orderItems;
+    }
 
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
 
-        return new Result(collect);
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
     }
 
     @Getter
@@ -195,4 +287,11 @@ public class OrderApiController {
     static class Result<T> {
         private T data;
     }
+
+    @AllArgsConstructor
+    @Getter
+    static class CursorResult<T> {
+        private T data;
+        private String next;    //다음 페이지 커서
+    }
 }
@@ -3,14 +3,18 @@ package jpabook.jpashop.api;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.OrderService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -29,6 +33,7 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderService orderService;
 
     /**
      * V1. 엔티티 직접 노출
@@ -84,6 +89,35 @@ public class OrderSimpleApiController {
         return new Result(orderDtos);
     }
 
+    /**
+     * V4.1 총 금액 순 조회
+     *  - 저장된 orders.total_price 로 정렬, 주문상품 조회 X
+     *  - offset >= 0, limit 1 ~ 1000 (아니면 400)
+     */
+    @GetMapping("/api/v4.1/simple-orders")
+    public Result ordersV4_byTotalPrice(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.validate(offset, limit);
+        List<OrderSimpleQueryDto> orderDtos = orderSimpleQueryRepository.findOrderDtosOrderByTotalPrice(offset, limit);
+        return new Result(orderDtos);
+    }
+
+    /**
+     * V5. 주문 요약 테이블 조회
+     *  - 조인 없이 order_summary 한 테이블만 인덱스로 조회 (총 금액, 수량 포함)
+     *  - memberName(앞부분 일치), orderStatus 검색, offset 페이징 (offset >= 0, limit 1 ~ 1000, 아니면 400)
+     */
+    @GetMapping("/api/v5/simple-orders")
+    public Result ordersV5(@ModelAttribute OrderSearch orderSearch,
+                           @RequestParam(value = "offset", defaultValue = "0") int offset,
+                           @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        PageParams.validate(offset, limit);
+        List<OrderSummaryDto> collect = orderService.searchOrderSummaries(orderSearch, offset, limit).stream()
+                .map(OrderSummaryDto::new)
+                .collect(Collectors.toList());
+        return new Result(collect);
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T> {
@@ -97,6 +131,7 @@ public class OrderSimpleApiController {
         private LocalDateTime orderDate;
         private OrderStatus orderStatus;
         private Address address;
+        private long totalPrice;
 
         public SimpleOrderDto(Order order) {
             this.orderId = order.getId();
@@ -104,6 +139,28 @@ public class OrderSimpleApiController {
             this.orderDate = order.getOrderDate();
             this.orderStatus = order.getStatus();
             this.address = order.getDelivery().getAddress(); //Lay 초기화
+            this.totalPrice = order.getTotalPrice();    //저장된 총액, orderItems 초기화 X
+        }
+    }
+
+    @Data
+    static class OrderSummaryDto {
+        private Long orderId;
+        private String name;
+        private LocalDateTime orderDate;
+        private OrderStatus orderStatus;
+        private Address address;
+        private long totalPrice;
+        private int itemCount;
+
+        public OrderSummaryDto(OrderSummary summary) {
+            this.orderId = summary.getOrderId();
+            this.name = summary.getMemberName();
+            this.orderDate = summary.getOrderDate();
+            this.orderStatus = summary.getStatus();
+            this.address = summary.getAddress();
+            this.totalPrice = summary.getTotalPrice();
+            this.itemCount = summary.getItemCount();
         }
     }
 }
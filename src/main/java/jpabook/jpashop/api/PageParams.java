@@ -0,0 +1,28 @@
+package jpabook.jpashop.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 조회 API 페이징 파라미터 검증 (범위를 벗어나면 400)
+ */
+final class PageParams {
+
+    static final int MAX_LIMIT = 1000;
+
+    private PageParams() {
+    }
+
+    static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_LIMIT + " 이어야 합니다.");
+        }
+    }
+
+    static void validate(int offset, int limit) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset 은 0 이상이어야 합니다.");
+        }
+        validateLimit(limit);
+    }
+}
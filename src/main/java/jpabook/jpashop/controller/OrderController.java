@@ -4,8 +4,10 @@ import jpabook.jpashop.domain.Item;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.IdempotentOrderService;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderLineDto;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -13,6 +15,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
@@ -21,6 +24,7 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final IdempotentOrderService idempotentOrderService;
 
     @GetMapping("/order")
     public String createForm(Model model) {
@@ -30,15 +34,22 @@ public class OrderController {
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());    // 폼을 다시 전송해도 주문은 하나
 
         return "order/orderForm";
     }
 
+    /**
+     * 주문 (Idempotency-Key 헤더 또는 폼의 idempotencyKey 로 중복 주문 방지)
+     */
     @PostMapping("/order")
     public String order(@RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
-                        @RequestParam("count") int count) {
-        orderService.order(memberId, itemId, count);
+                        @RequestParam("count") int count,
+                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
+                        @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
+        String key = idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey;
+        idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, count)));
         return "redirect:/orders";
     }
 
@@ -0,0 +1,349 @@
+package jpabook.jpashop.datagen;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Movie;
+import jpabook.jpashop.service.OrderSummaryRebuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부하 테스트용 대량 데이터 생성 (datagen 프로파일에서만 등록, InitDb 대신 실행)
+ *  - 카테고리 -> 상품(Book, Album, Movie) -> 회원과 회원의 주문 순으로 생성
+ *  - 상품 인기도는 Zipf 분포, 회원당 주문 수는 기하 분포 (소수의 헤비 유저)
+ *  - 작업을 workers 개의 범위로 나눠 동시에 생성, 스레드마다 EntityManager 하나
+ *  - chunk-size 개마다 커밋 후 영속성 컨텍스트 비움, insert 는 hibernate.jdbc.batch_size 단위 JDBC batch
+ *  - 주문상품은 상품을 조회하지 않고 getReference + 미리 모아둔 가격으로 생성
+ *  - 재고는 차감하지 않는다. (initial-stock 을 넉넉하게)
+ *  - 마지막에 order_summary 재생성
+ *
+ * 실행 : ./gradlew bootRun --args='--spring.profiles.active=datagen --jpashop.datagen.members=1000000'
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DataGenerator implements ApplicationRunner {
+
+    private static final String[] CITIES = {"서울", "부산", "인천", "대구", "대전", "광주", "울산", "수원", "전주", "제주"};
+
+    private final EntityManagerFactory emf;
+    private final OrderSummaryRebuilder orderSummaryRebuilder;
+
+    @Value("${jpashop.datagen.members:100000}")
+    private int members;
+
+    @Value("${jpashop.datagen.items:10000}")
+    private int items;
+
+    @Value("${jpashop.datagen.categories:50}")
+    private int categories;
+
+    @Value("${jpashop.datagen.orders-per-member:5}")
+    private double ordersPerMember;
+
+    @Value("${jpashop.datagen.max-items-per-order:5}")
+    private int maxItemsPerOrder;
+
+    @Value("${jpashop.datagen.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${jpashop.datagen.cancel-ratio:0.1}")
+    private double cancelRatio;
+
+    @Value("${jpashop.datagen.initial-stock:1000000}")
+    private int initialStock;
+
+    @Value("${jpashop.datagen.workers:4}")
+    private int workers;
+
+    @Value("${jpashop.datagen.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${jpashop.datagen.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        log.info("데이터 생성 시작 : 회원 {}, 상품 {}, 카테고리 {}, 회원당 평균 주문 {}, workers {}",
+                members, items, categories, ordersPerMember, workers);
+
+        long[] categoryIds = generateCategories();
+        log.info("카테고리 {} 개 생성 ({} ms)", categoryIds.length, elapsedMillis(start));
+
+        long[] itemIds = new long[items];
+        int[] itemPrices = new int[items];
+        generateItems(categoryIds, itemIds, itemPrices);
+        log.info("상품 {} 개 생성 ({} ms)", items, elapsedMillis(start));
+
+        long orders = generateMembersAndOrders(itemIds, itemPrices);
+        log.info("회원 {} 명, 주문 {} 개 생성 ({} ms)", members, orders, elapsedMillis(start));
+
+        orderSummaryRebuilder.rebuild();
+        log.info("데이터 생성 완료 ({} ms)", elapsedMillis(start));
+    }
+
+    /**
+     * 최상위 카테고리 + 하위 카테고리 (하위 카테고리에만 상품 연결)
+     */
+    private long[] generateCategories() {
+        int roots = Math.max(1, categories / 5);
+        List<Category> leaves = new ArrayList<>();
+
+        EntityManager em = createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Category> rootCategories = new ArrayList<>();
+            for (int i = 0; i < roots; i++) {
+                Category root = new Category();
+                root.setName("CATEGORY-" + i);
+                em.persist(root);
+                rootCategories.add(root);
+            }
+            for (int i = 0; i < Math.max(1, categories - roots); i++) {
+                Category leaf = new Category();
+                leaf.setName("CATEGORY-" + (i % roots) + "-" + i);
+                rootCategories.get(i % roots).addChildCategory(leaf);
+                em.persist(leaf);
+                leaves.add(leaf);
+            }
+            em.getTransaction().commit();
+        } finally {
+            close(em);
+        }
+        return leaves.stream().mapToLong(Category::getId).toArray();
+    }
+
+    /**
+     * 상품 생성, 상품마다 카테고리 하나를 category_item 에 JDBC batch 로 연결
+     */
+    private void generateItems(long[] categoryIds, long[] itemIds, int[] itemPrices) throws InterruptedException {
+        runInParallel(items, (worker, from, to) -> {
+            SplittableRandom random = new SplittableRandom(seed * 31 + worker);
+            inChunks(from, to, (em, chunkFrom, chunkTo) -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    Item item = newItem(i, random);
+                    em.persist(item);
+                    itemIds[i] = item.getId();
+                    itemPrices[i] = item.getPrice();
+                }
+                em.flush();     // category_item 의 FK 보다 상품 insert 먼저
+
+                em.unwrap(Session.class).doWork(connection -> {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "insert into category_item (category_id, item_id) values (?, ?)")) {
+                        for (int i = chunkFrom; i < chunkTo; i++) {
+                            ps.setLong(1, categoryIds[random.nextInt(categoryIds.length)]);
+                            ps.setLong(2, itemIds[i]);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                });
+            });
+        });
+    }
+
+    private Item newItem(int index, SplittableRandom random) {
+        Item item;
+        switch (index % 3) {
+            case 0:
+                Book book = new Book();
+                book.setName("BOOK-" + index);
+                book.setAuthor("AUTHOR-" + random.nextInt(1000));
+                book.setIsbn(String.valueOf(9_780_000_000_000L + index));
+                item = book;
+                break;
+            case 1:
+                Album album = new Album();
+                album.setName("ALBUM-" + index);
+                album.setArtist("ARTIST-" + random.nextInt(1000));
+                item = album;
+                break;
+            default:
+                Movie movie = new Movie();
+                movie.setName("MOVIE-" + index);
+                movie.setDirector("DIRECTOR-" + random.nextInt(1000));
+                movie.setActor("ACTOR-" + random.nextInt(1000));
+                item = movie;
+        }
+        item.setPrice((1 + random.nextInt(100)) * 1000);
+        item.setStockQuantity(initialStock);
+        return item;
+    }
+
+    /**
+     * 회원과 회원의 주문을 같은 chunk 에서 생성 (회원을 다시 조회하지 않도록)
+     */
+    private long generateMembersAndOrders(long[] itemIds, int[] itemPrices) throws InterruptedException {
+        ZipfSampler popularity = new ZipfSampler(itemIds.length, zipfExponent);
+        AtomicLong orderCount = new AtomicLong();
+
+        runInParallel(members, (worker, from, to) -> {
+            SplittableRandom random = new SplittableRandom(seed * 131 + worker);
+            inChunks(from, to, (em, chunkFrom, chunkTo) -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    Member member = new Member();
+                    member.setName("member" + i);
+                    member.setAddress(new Address(CITIES[random.nextInt(CITIES.length)],
+                            random.nextInt(1000) + "번길", String.format("%05d", random.nextInt(100000))));
+                    em.persist(member);
+
+                    int orders = ordersOf(random);
+                    for (int o = 0; o < orders; o++) {
+                        em.persist(newOrder(em, member, itemIds, itemPrices, popularity, random));
+                    }
+                    orderCount.addAndGet(orders);
+                }
+            });
+        });
+        return orderCount.get();
+    }
+
+    private Order newOrder(EntityManager em, Member member, long[] itemIds, int[] itemPrices,
+                           ZipfSampler popularity, SplittableRandom random) {
+        int[] ranks = sampleDistinct(popularity, random, 1 + random.nextInt(maxItemsPerOrder));
+        OrderItem[] orderItems = new OrderItem[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            Item item = em.getReference(Item.class, itemIds[ranks[i]]);   // select X
+            orderItems[i] = OrderItem.createReservedOrderItem(item, itemPrices[ranks[i]], 1 + random.nextInt(3));
+        }
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(random.nextBoolean() ? DeliveryStatus.COMP : DeliveryStatus.READY);
+
+        Order order = Order.createOrder(member, delivery, orderItems);
+        order.setOrderDate(LocalDateTime.now().minusSeconds(random.nextLong(365L * 24 * 60 * 60)));
+        if (delivery.getStatus() == DeliveryStatus.READY && random.nextDouble() < cancelRatio) {
+            order.setStatus(OrderStatus.CANCEL);
+        }
+        return order;
+    }
+
+    /**
+     * 한 주문 안에서는 같은 상품이 두 번 나오지 않도록 (OrderService 와 동일하게 한 줄로)
+     */
+    private static int[] sampleDistinct(ZipfSampler popularity, SplittableRandom random, int count) {
+        int[] ranks = new int[count];
+        int size = 0;
+        for (int attempt = 0; size < count && attempt < count * 10; attempt++) {
+            int rank = popularity.sample(random);
+            boolean duplicated = false;
+            for (int i = 0; i < size; i++) {
+                if (ranks[i] == rank) {
+                    duplicated = true;
+                    break;
+                }
+            }
+            if (!duplicated) {
+                ranks[size++] = rank;
+            }
+        }
+        return size == count ? ranks : Arrays.copyOf(ranks, size);
+    }
+
+    /**
+     * 기하 분포, 평균 ordersPerMember
+     */
+    private int ordersOf(SplittableRandom random) {
+        double p = 1 / (1 + ordersPerMember);
+        return (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    /**
+     * [0, total) 을 workers 개의 연속 범위로 나눠서 동시에 실행
+     */
+    private void runInParallel(int total, RangeWork work) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int rangeSize = (total + workers - 1) / workers;
+            for (int worker = 0; worker < workers; worker++) {
+                int from = worker * rangeSize;
+                int to = Math.min(from + rangeSize, total);
+                if (from >= to) {
+                    break;
+                }
+                int workerIndex = worker;
+                futures.add(executor.submit(() -> work.run(workerIndex, from, to)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("데이터 생성 실패", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * [from, to) 를 chunk-size 개씩 트랜잭션 하나로 실행
+     */
+    private void inChunks(int from, int to, ChunkWork work) {
+        EntityManager em = createEntityManager();
+        try {
+            for (int chunkFrom = from; chunkFrom < to; chunkFrom += chunkSize) {
+                em.getTransaction().begin();
+                work.run(em, chunkFrom, Math.min(chunkFrom + chunkSize, to));
+                em.getTransaction().commit();
+                em.clear();
+            }
+        } finally {
+            close(em);
+        }
+    }
+
+    private EntityManager createEntityManager() {
+        EntityManager em = emf.createEntityManager();
+        em.setProperty("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS);    // 2차 캐시에 넣지 않음
+        return em;
+    }
+
+    private static void close(EntityManager em) {
+        if (em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+        em.close();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @FunctionalInterface
+    private interface RangeWork {
+        void run(int worker, int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWork {
+        void run(EntityManager em, int from, int to);
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf 분포 샘플링 (순위 0 이 가장 자주 뽑힌다)
+ *  - P(rank k) ∝ 1 / (k + 1)^exponent
+ *  - 누적 분포(CDF) 배열을 한 번 만들어 두고 이진 탐색 -> 샘플 하나에 O(log n)
+ *  - 생성 후에는 읽기만 하므로 여러 스레드에서 공유해도 된다. (Random 은 스레드마다 따로)
+ */
+public class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size 는 1 이상이어야 합니다. size=" + size);
+        }
+        cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
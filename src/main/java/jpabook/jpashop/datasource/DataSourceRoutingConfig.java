@@ -0,0 +1,101 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 읽기 / 쓰기 분리 (jpashop.datasource.routing.enabled: true 일 때만)
+ *  - 주 DB : spring.datasource.*, spring.datasource.hikari.*
+ *  - 복제본 : jpashop.datasource.routing.replica.* (HikariCP 설정 이름 그대로, jdbc-url, username, maximum-pool-size ...)
+ *      - 장애 시 빨리 실패하고 주 DB 로 읽도록 connection-timeout 기본값 1초, 기동 시 복제본이 없어도 시작
+ *  - 커넥션 풀 두 개는 빈으로 등록하지 않는다. (p6spy 로그, 커넥션 풀 메트릭 중복 방지 -> 메트릭은 직접 등록)
+ *
+ * open-in-view 로 요청 내내 같은 세션을 쓰므로
+ * 트랜잭션이 끝나면 커넥션을 반납하도록 바꿔서 트랜잭션마다 주 DB / 복제본을 다시 고르게 한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final long REPLICA_CONNECTION_TIMEOUT_MILLIS = 1000;
+
+    @Value("${jpashop.datasource.routing.max-lag:1s}")
+    private Duration maxLag;
+
+    @Value("${jpashop.datasource.routing.lag-check-interval:1s}")
+    private Duration lagCheckInterval;
+
+    @Value("${jpashop.datasource.routing.lag-query:}")
+    private String lagQuery;
+
+    @Value("${jpashop.datasource.routing.read-your-writes-window:2s}")
+    private Duration readYourWritesWindow;
+
+    @Bean
+    public RoutingDataSourceProxy dataSource(DataSourceProperties properties, Environment environment,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MILLIS);
+        replica.setInitializationFailTimeout(-1);
+        binder.bind("jpashop.datasource.routing.replica", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        });
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, lagQuery, maxLag, lagCheckInterval);
+        lagMonitor.start();
+        return new RoutingDataSourceProxy(new ReplicationRoutingDataSource(primary, replica, lagMonitor, readYourWritesWindow));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * 첫 SQL 실행 시점에 커넥션을 고르고, 종료 시 커넥션 풀 두 개를 닫는다.
+     */
+    public static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReplicationRoutingDataSource routingDataSource;
+
+        RoutingDataSourceProxy(ReplicationRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() throws IOException {
+            routingDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+
+/**
+ * 요청 안에서 쓰기 직후의 읽기는 주 DB 로 (read-your-writes)
+ *  - 주 DB 커넥션에서 변경 SQL 을 실행한 트랜잭션이 커밋된 시각을 요청 속성에 기록
+ *      - 조회만 한 쓰기 트랜잭션, 롤백된 트랜잭션은 기록하지 않는다.
+ *      - 트랜잭션 밖(auto-commit)이면 실행 즉시 기록
+ *  - 복제본은 아직 반영 전일 수 있으므로 window 동안은 읽기 전용 트랜잭션도 주 DB 사용
+ *  - 요청 스레드가 아니면(배치, 테스트) 기록하지 않는다.
+ */
+public final class ReadYourWrites {
+
+    static final String LAST_WRITE_ATTRIBUTE = ReadYourWrites.class.getName() + ".LAST_WRITE";
+
+    private ReadYourWrites() {
+    }
+
+    public static void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(LAST_WRITE_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public static boolean wroteWithin(Duration window) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Long lastWrite = (Long) attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return lastWrite != null && System.nanoTime() - lastWrite < window.toNanos();
+    }
+
+    /**
+     * 주 DB 커넥션 감싸기 : 변경 SQL 을 준비하면 커밋 후 기록 예약
+     */
+    static Connection trackWrites(Connection connection) {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(ReadYourWrites.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isWrite(method, args)) {
+                        markWriteOnCommit();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * SQL 을 알 수 없는 createStatement 는 변경으로 본다.
+     */
+    private static boolean isWrite(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "createStatement":
+                return true;
+            case "prepareStatement":
+            case "prepareCall":
+                String sql = ((String) args[0]).stripLeading().toLowerCase();
+                return !sql.startsWith("select") && !sql.startsWith("with");
+            default:
+                return false;
+        }
+    }
+
+    private static void markWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markWrite();
+            return;
+        }
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(MarkWriteAfterCommit.class::isInstance);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new MarkWriteAfterCommit());
+        }
+    }
+
+    private static class MarkWriteAfterCommit implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            markWrite();
+        }
+    }
+}
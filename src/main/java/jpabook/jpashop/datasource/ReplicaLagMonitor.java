@@ -0,0 +1,124 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 복제본 사용 가능 여부 (복제 지연, 장애)
+ *  - 백그라운드 스레드가 check-interval 마다 확인, 요청 스레드는 마지막 결과만 읽는다. (복제본 장애로 요청이 기다리지 않게)
+ *      - 확인은 복제본 커넥션 풀의 connection-timeout 안에 끝나야 한다. (DataSourceRoutingConfig 에서 짧게 설정)
+ *  - lag-query : 복제본에서 실행, 지연 시간(초)을 반환하는 SQL
+ *      - PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp())
+ *      - 없으면 커넥션이 유효한지만 확인
+ *  - 지연이 max-lag 를 넘거나 확인에 실패하면 사용 불가 -> 주 DB 로
+ *  - 복제본 커넥션 획득에 실패해도 바로 사용 불가 (markUnusable), 다음 확인에서 다시 판단
+ *  - 첫 확인 전에는 사용 불가
+ */
+@Slf4j
+public class ReplicaLagMonitor implements Closeable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+
+    private volatile boolean usable = false;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replica = replica;
+        this.lagQuery = StringUtils.hasText(lagQuery) ? lagQuery : null;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * 주기적 확인 시작 (즉시 한 번 확인)
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * 복제본 커넥션 획득 실패 -> 다음 확인까지 주 DB 로 읽기
+     */
+    public void markUnusable(SQLException cause) {
+        if (usable) {
+            usable = false;
+            log.warn("복제본 커넥션 실패 : {} -> 주 DB 로 읽기", cause.getMessage());
+        }
+    }
+
+    /**
+     * 복제본을 확인해서 사용 가능 여부 갱신
+     */
+    void refresh() {
+        boolean wasUsable = usable;
+        usable = check();
+        if (wasUsable != usable) {
+            log.warn("복제본 사용 {}", usable ? "재개" : "중단 -> 주 DB 로 읽기");
+        }
+    }
+
+    private boolean check() {
+        try (Connection connection = replica.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+                try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    double lagSeconds = rs.getDouble(1);
+                    boolean withinLimit = !rs.wasNull() && lagSeconds * 1000 <= maxLag.toMillis();
+                    if (!withinLimit) {
+                        log.debug("복제 지연 {} s > max-lag {}", lagSeconds, maxLag);
+                    }
+                    return withinLimit;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("복제본 확인 실패 : {}", e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            // 스케줄 스레드가 멈추지 않도록
+            log.warn("복제본 확인 실패", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 읽기 / 쓰기 분리
+ *  - @Transactional(readOnly = true) 트랜잭션 -> 복제본, 나머지(쓰기, 트랜잭션 밖) -> 주 DB
+ *  - 복제본이 지연되거나 장애면 주 DB (ReplicaLagMonitor)
+ *      - 복제본 커넥션 획득에 실패하면 복제본을 사용 불가로 표시하고 주 DB 커넥션으로 대신한다.
+ *  - 같은 요청에서 쓰기 커밋 후 read-your-writes-window 동안은 주 DB (ReadYourWrites)
+ *
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되지 않으므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 커넥션을 고르게 한다.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Duration readYourWritesWindow;
+
+    public ReplicationRoutingDataSource(DataSource primary, DataSource replica,
+                                        ReplicaLagMonitor lagMonitor, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesWindow = readYourWritesWindow;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (ReadYourWrites.wroteWithin(readYourWritesWindow)) {
+            return Route.PRIMARY;
+        }
+        return lagMonitor.isReplicaUsable() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return ReadYourWrites.trackWrites(target.getConnection());
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            lagMonitor.markUnusable(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return ReadYourWrites.trackWrites(target.getConnection(username, password));
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            lagMonitor.markUnusable(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lagMonitor.close();
+        for (DataSource dataSource : new DataSource[]{replica, primary}) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
@@ -1,27 +1,80 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
+@Cacheable  // 2차 캐시, 설정은 application.conf 의 member 리전
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_name", columnNames = "name"))
 @Getter @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    public static final int NAME_GRAM_SIZE = 2;
+
+    @Id
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = {
+            @Parameter(name = "sequence_name", value = "member_seq"),
+            @Parameter(name = "increment_size", value = "50")})
     @Column(name = "member_id")
     private Long id;
 
     private String name;
 
+    /**
+     * 이름 부분 검색용 n-gram(2글자) 인덱스, 이름을 바꾸면 같이 갱신
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ElementCollection
+    @CollectionTable(name = "member_name_gram", joinColumns = @JoinColumn(name = "member_id"),
+            indexes = @Index(name = "idx_member_name_gram_gram", columnList = "gram, member_id"))
+    @Column(name = "gram", length = NAME_GRAM_SIZE)
+    private Set<String> nameGrams = new HashSet<>();
+
     @Embedded
     private Address address;
 
     @JsonIgnore
     @OneToMany(mappedBy = "member")
     private List<Order> orders = new ArrayList<>();
+
+    public void setName(String name) {
+        this.name = name;
+        Set<String> grams = toNameGrams(name);
+        nameGrams.retainAll(grams);     // 바뀐 gram 만 delete, insert
+        nameGrams.addAll(grams);
+    }
+
+    /**
+     * 2글자씩 자른 부분 문자열 (한글 이름은 보통 3글자라 trigram 보다 bigram)
+     *  - 2글자보다 짧으면 그대로 사용
+     */
+    public static Set<String> toNameGrams(String value) {
+        Set<String> grams = new HashSet<>();
+        if (value == null || value.isEmpty()) {
+            return grams;
+        }
+        if (value.length() < NAME_GRAM_SIZE) {
+            grams.add(value);
+            return grams;
+        }
+        for (int i = 0; i + NAME_GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + NAME_GRAM_SIZE));
+        }
+        return grams;
+    }
 }
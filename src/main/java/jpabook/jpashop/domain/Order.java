@@ -4,21 +4,34 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static javax.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"),  // 커서 페이징
+        @Index(name = "idx_orders_status_id", columnList = "status, order_id"),          // 주문 상태 검색
+        @Index(name = "idx_orders_member_id", columnList = "member_id"),                // 회원 이름 검색 -> 회원의 주문
+        @Index(name = "idx_orders_total_price_id", columnList = "total_price, order_id")  // 총 금액 정렬
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = {
+            @Parameter(name = "sequence_name", value = "orders_seq"),
+            @Parameter(name = "increment_size", value = "50")})
     @Column(name = "order_id")
     private Long id;
 
@@ -33,11 +46,16 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;  //배송정보
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate; //주문시간
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status; //주문상태 [ORDER, CANCEL]
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "total_price")
+    private long totalPrice;    //주문 총액, 주문 생성 시 계산해서 저장 (목록에서 orderItems 로딩 X)
+
     //==연관관계 (편의) 메서드==//
     public void setMember(Member member) {
         this.member = member;
@@ -64,36 +82,51 @@ public class Order {
         }
         order.setStatus(OrderStatus.ORDER);
         order.setOrderDate(LocalDateTime.now());
+        order.totalPrice = order.calculateTotalPrice();
         return order;
     }
 
     //==비즈니스 로직==//
     /**
      * 주문 취소
+     *  - 재고 복구는 OrderService 에서 조건부 UPDATE 로 (itemQuantities)
+     *  - 이미 취소된 주문을 다시 취소하면 재고가 두 번 복구되므로 예외
      */
     public void cancel() {
+        if (status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     //==조회 로직==//
     /**
-     * 전체 주문 가격 조회
+     * 전체 주문 가격 계산 (orderItems 로딩)
+     *  - 저장된 값은 getTotalPrice()
      */
-    public int getTotalPrice() {
-        int totalPrice = 0;
+    public long calculateTotalPrice() {
+        long totalPrice = 0;
         for (OrderItem orderItem : orderItems) {
             totalPrice += orderItem.getTotalPrice();
         }
         // 람다활용
-        // int totalPrice = orderItems.stream().mapToInt(OrderItem::getTotalPrice).sum();
+        // long totalPrice = orderItems.stream().mapToLong(OrderItem::getTotalPrice).sum();
 
         return totalPrice;
     }
+
+    /**
+     * 상품 id -> 주문 수량 (orderItems 로딩, 상품은 로딩 X)
+     */
+    public Map<Long, Integer> itemQuantities() {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem orderItem : orderItems) {
+            quantities.merge(orderItem.getItem().getId(), orderItem.getCount(), Integer::sum);
+        }
+        return quantities;
+    }
 }
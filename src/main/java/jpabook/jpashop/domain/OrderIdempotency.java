@@ -0,0 +1,55 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 요청 중복 방지 기록 (Idempotency-Key -> 주문 id)
+ *  - 주문과 같은 트랜잭션에서 저장 -> 재시작, 다른 서버에서도 같은 키는 같은 주문
+ *  - 키가 PK 이므로 동시에 같은 키로 저장하면 하나만 성공
+ *  - created_at + ttl 이 지나면 만료 (조회 시 무시, 주기적으로 삭제)
+ */
+@Entity
+@Table(name = "order_idempotency", indexes = {
+        @Index(name = "idx_order_idempotency_created_at", columnList = "created_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderIdempotency {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    private String fingerprint;     // 요청 내용 (회원, 상품, 수량)
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    //==생성 메서드==//
+    public static OrderIdempotency create(String key, String fingerprint, Long orderId) {
+        OrderIdempotency idempotency = new OrderIdempotency();
+        idempotency.key = key;
+        idempotency.fingerprint = fingerprint;
+        idempotency.orderId = orderId;
+        idempotency.createdAt = LocalDateTime.now();
+        return idempotency;
+    }
+
+    //==조회 로직==//
+    /**
+     * expiredBefore 이전에 저장된 기록이면 만료
+     */
+    public boolean isExpired(LocalDateTime expiredBefore) {
+        return createdAt.isBefore(expiredBefore);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -15,7 +17,11 @@ import static javax.persistence.FetchType.*;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
+    @GenericGenerator(name = "order_item_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = {
+            @Parameter(name = "sequence_name", value = "order_item_seq"),
+            @Parameter(name = "increment_size", value = "100")})
     @Column(name = "order_item_id")
     private Long id;
 
@@ -33,25 +39,26 @@ public class OrderItem {
 
     //==생성 메서드==//
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        item.removeStock(count);
+        return createReservedOrderItem(item, orderPrice, count);
+    }
+
+    /**
+     * 재고를 DB 에서 이미 차감한 경우 (ItemRepository.removeStocks)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.removeStock(count);
         return orderItem;
     }
 
-    //==비즈니스 로직==//
-    public void cancel() {
-        getItem().addStock(getCount());
-    }
-
     //==조회 로직==//
     /**
-     * 주문품 전체 가격 조회
+     * 주문품 전체 가격 조회 (int 곱셈 overflow 방지)
      */
-    public int getTotalPrice() {
-        return getOrderPrice() * getCount();
+    public long getTotalPrice() {
+        return (long) getOrderPrice() * getCount();
     }
 }
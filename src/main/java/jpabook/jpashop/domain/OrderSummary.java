@@ -0,0 +1,70 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 요약 (조회 전용 비정규화 테이블)
+ *  - 주문, 회원, 배송, 주문상품을 조인하지 않고 한 테이블에서 목록 조회
+ *  - 주문, 주문 취소와 같은 트랜잭션에서 갱신 (OrderService)
+ *  - 기존 데이터는 OrderSummaryRebuilder 로 다시 생성
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_status_id", columnList = "status, order_id"),
+        @Index(name = "idx_order_summary_member_name", columnList = "member_name"),
+        @Index(name = "idx_order_summary_member_id", columnList = "member_id"),    // 회원 이름 변경
+        @Index(name = "idx_order_summary_order_date_id", columnList = "order_date, order_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;   // 주문과 같은 id
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "member_name")
+    private String memberName;
+
+    @Embedded
+    private Address address;    // 배송지
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Column(name = "total_price")
+    private long totalPrice;
+
+    @Column(name = "item_count")
+    private int itemCount;  // 주문 수량 합계
+
+    //==생성 메서드==//
+    public static OrderSummary of(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.address = order.getDelivery().getAddress();
+        summary.status = order.getStatus();
+        summary.orderDate = order.getOrderDate();
+        summary.totalPrice = order.getTotalPrice();
+        summary.itemCount = order.getOrderItems().stream().mapToInt(OrderItem::getCount).sum();
+        return summary;
+    }
+
+    //==비즈니스 로직==//
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.domain;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 모든 엔티티가 공유하는 시퀀스 식별자 전략
+ *  - 시퀀스 한 번 호출로 increment_size 개의 id 블록을 메모리에 예약 (pooled-lo)
+ *    -> insert 마다 시퀀스를 호출하지 않고, JDBC batch 도 그대로 사용 가능
+ *  - 블록 크기 우선순위 : jpashop.id.{시퀀스명}.increment_size 설정 > 엔티티의 increment_size > 50
+ *  - 최적화 전략 : jpashop.id.optimizer (기본 pooled-lo, pooled 도 가능)
+ *
+ * 설정은 spring.jpa.properties 아래에 둔다.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "jpabook.jpashop.domain.PooledSequenceGenerator";
+
+    private static final int DEFAULT_INCREMENT_SIZE = 50;
+    private static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String sequenceName = params.getProperty(SEQUENCE_PARAM);
+
+        int incrementSize = ConfigurationHelper.getInt(INCREMENT_PARAM, params, DEFAULT_INCREMENT_SIZE);
+        incrementSize = ConfigurationHelper.getInt("jpashop.id." + sequenceName + "." + INCREMENT_PARAM, settings, incrementSize);
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(incrementSize));
+        params.setProperty(OPT_PARAM, ConfigurationHelper.getString("jpashop.id.optimizer", settings, DEFAULT_OPTIMIZER));
+        super.configure(type, params, serviceRegistry);
+    }
+}
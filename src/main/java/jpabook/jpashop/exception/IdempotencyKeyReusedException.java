@@ -0,0 +1,15 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 같은 Idempotency-Key 로 다른 내용의 주문 요청 -> 422
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends IllegalStateException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
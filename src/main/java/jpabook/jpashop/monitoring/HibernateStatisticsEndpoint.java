@@ -0,0 +1,239 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate 통계 (GET /actuator/hibernate, 관리용)
+ *  - JPQL 별 실행 수, 평균 / 최대 시간, 조회 행 수, 실행 계획 캐시 적중
+ *      -> 조건마다 다른 JPQL 을 만드는 동적 쿼리(findAllByString)가 계획 캐시를 얼마나 차지하는지 확인
+ *  - 엔티티, 컬렉션별 load(조회) / fetch(지연 로딩) 수, flush 수, 2차 캐시 영역별 적중
+ *  - 측정 구간 : DELETE /actuator/hibernate 로 통계 초기화 -> 새 구간 시작
+ *  - 통계는 애플리케이션 전체 누적값 (요청별 SQL 수는 SqlStatementFilter 응답 헤더)
+ *  - hibernate.generate_statistics: true 일 때만 수집
+ *  - 인증이 없으므로 기본은 웹에 노출하지 않는다.
+ *      - 필요할 때만 management.endpoints.web.exposure.include 에 hibernate 추가 (내부망 management.server.port 권장)
+ *
+ * GET /actuator/hibernate?top=20 : 전체 실행 시간이 긴 쿼리 순 top 개 (기본 50)
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private static final int DEFAULT_TOP = 50;
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public HibernateStatisticsReport statistics(@Nullable Integer top) {
+        Instant start = statistics.getStart();
+        int limit = top == null || top <= 0 ? DEFAULT_TOP : top;
+
+        List<QueryReport> queries = Arrays.stream(statistics.getQueries())
+                .map(query -> QueryReport.of(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryReport::getTotalTime).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        List<EntityReport> entities = Arrays.stream(statistics.getEntityNames())
+                .map(name -> EntityReport.of(name, statistics.getEntityStatistics(name)))
+                .filter(EntityReport::used)
+                .collect(Collectors.toList());
+
+        List<EntityReport> collections = Arrays.stream(statistics.getCollectionRoleNames())
+                .map(role -> EntityReport.of(role, statistics.getCollectionStatistics(role)))
+                .filter(EntityReport::used)
+                .collect(Collectors.toList());
+
+        List<CacheRegionReport> cacheRegions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> CacheRegionReport.of(region, statistics.getDomainDataRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new HibernateStatisticsReport(
+                statistics.isStatisticsEnabled(),
+                start,
+                Duration.between(start, Instant.now()).getSeconds(),
+                new SessionReport(statistics),
+                new PlanCacheReport(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount(),
+                        ratio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount())),
+                statistics.getQueries().length,
+                queries,
+                entities,
+                collections,
+                cacheRegions);
+    }
+
+    /**
+     * 통계 초기화 (새 측정 구간 시작)
+     */
+    @DeleteOperation
+    public Instant reset() {
+        statistics.clear();
+        return statistics.getStart();
+    }
+
+    private static double ratio(long hit, long miss) {
+        return hit + miss == 0 ? 0 : (double) hit / (hit + miss);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class HibernateStatisticsReport {
+        private boolean enabled;
+        private Instant windowStart;
+        private long windowSeconds;
+        private SessionReport session;
+        private PlanCacheReport planCache;
+        private int distinctQueries;
+        private List<QueryReport> queries;
+        private List<EntityReport> entities;
+        private List<EntityReport> collections;
+        private List<CacheRegionReport> cacheRegions;
+    }
+
+    @Data
+    static class SessionReport {
+        private long sessionOpen;
+        private long transactions;
+        private long flushes;
+        private long preparedStatements;
+        private long entityLoads;
+        private long entityFetches;
+        private long entityInserts;
+        private long entityUpdates;
+        private long entityDeletes;
+        private long collectionLoads;
+        private long collectionFetches;
+        private long queryExecutions;
+        private long queryExecutionMaxTime;
+        private String slowestQuery;
+        private long secondLevelCacheHits;
+        private long secondLevelCacheMisses;
+        private long secondLevelCachePuts;
+        private double secondLevelCacheHitRatio;
+        private long queryCacheHits;
+        private long queryCacheMisses;
+
+        SessionReport(Statistics statistics) {
+            sessionOpen = statistics.getSessionOpenCount();
+            transactions = statistics.getTransactionCount();
+            flushes = statistics.getFlushCount();
+            preparedStatements = statistics.getPrepareStatementCount();
+            entityLoads = statistics.getEntityLoadCount();
+            entityFetches = statistics.getEntityFetchCount();
+            entityInserts = statistics.getEntityInsertCount();
+            entityUpdates = statistics.getEntityUpdateCount();
+            entityDeletes = statistics.getEntityDeleteCount();
+            collectionLoads = statistics.getCollectionLoadCount();
+            collectionFetches = statistics.getCollectionFetchCount();
+            queryExecutions = statistics.getQueryExecutionCount();
+            queryExecutionMaxTime = statistics.getQueryExecutionMaxTime();
+            slowestQuery = statistics.getQueryExecutionMaxTimeQueryString();
+            secondLevelCacheHits = statistics.getSecondLevelCacheHitCount();
+            secondLevelCacheMisses = statistics.getSecondLevelCacheMissCount();
+            secondLevelCachePuts = statistics.getSecondLevelCachePutCount();
+            secondLevelCacheHitRatio = ratio(secondLevelCacheHits, secondLevelCacheMisses);
+            queryCacheHits = statistics.getQueryCacheHitCount();
+            queryCacheMisses = statistics.getQueryCacheMissCount();
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PlanCacheReport {
+        private long hits;
+        private long misses;
+        private double hitRatio;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class QueryReport {
+        private String query;
+        private long executions;
+        private long avgTime;
+        private long maxTime;
+        private long totalTime;
+        private long rows;
+        private long planCacheHits;
+        private long planCacheMisses;
+        private long cacheHits;
+        private long cacheMisses;
+
+        static QueryReport of(String query, QueryStatistics stats) {
+            return new QueryReport(query,
+                    stats.getExecutionCount(),
+                    stats.getExecutionAvgTime(),
+                    stats.getExecutionMaxTime(),
+                    stats.getExecutionTotalTime(),
+                    stats.getExecutionRowCount(),
+                    stats.getPlanCacheHitCount(),
+                    stats.getPlanCacheMissCount(),
+                    stats.getCacheHitCount(),
+                    stats.getCacheMissCount());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class EntityReport {
+        private String name;
+        private long loads;
+        private long fetches;
+
+        static EntityReport of(String name, EntityStatistics stats) {
+            return new EntityReport(name, stats.getLoadCount(), stats.getFetchCount());
+        }
+
+        static EntityReport of(String role, CollectionStatistics stats) {
+            return new EntityReport(role, stats.getLoadCount(), stats.getFetchCount());
+        }
+
+        boolean used() {
+            return loads + fetches > 0;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CacheRegionReport {
+        private String region;
+        private long hits;
+        private long misses;
+        private long puts;
+        private long elementsInMemory;
+
+        static CacheRegionReport of(String region, CacheRegionStatistics stats) {
+            if (stats == null) {
+                return null;
+            }
+            return new CacheRegionReport(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                    stats.getElementCountInMemory());
+        }
+    }
+}
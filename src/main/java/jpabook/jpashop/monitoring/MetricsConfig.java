@@ -0,0 +1,21 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 서비스 메서드 지연 시간 측정 (@Timed, /actuator/prometheus)
+ *  - @Timed 는 스프링 AOP 프록시로 동작 -> 같은 클래스 안의 내부 호출은 측정 X
+ *  - 히스토그램 버킷, SLO 경계는 application.yml 의 management.metrics.distribution
+ *  - 커넥션 풀(HikariCP) 게이지는 스프링 부트가 자동 등록 (hikaricp_connections_*)
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
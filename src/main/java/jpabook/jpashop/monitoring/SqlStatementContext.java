@@ -0,0 +1,51 @@
+package jpabook.jpashop.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나 동안 실행된 SQL 집계
+ *  - SqlStatementFilter 가 요청 시작 시 열고 끝날 때 닫는다.
+ *  - 요청 스레드에서 실행된 SQL 만 집계 (요청 밖, 비동기 스레드 X)
+ */
+public class SqlStatementContext {
+
+    private static final ThreadLocal<SqlStatementContext> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long elapsedNanos;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+
+    public static SqlStatementContext open() {
+        SqlStatementContext context = new SqlStatementContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static SqlStatementContext current() {
+        return CURRENT.get();
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * SQL 실행 기록
+     * @return 같은 모양(바인딩 전 SQL)의 SQL 이 이번 요청에서 실행된 횟수
+     */
+    int record(String sql, long elapsedNanos) {
+        this.count++;
+        this.elapsedNanos += elapsedNanos;
+        return countsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
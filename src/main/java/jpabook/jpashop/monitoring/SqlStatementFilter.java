@@ -0,0 +1,185 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * 모든 요청에 SQL 실행 수, 실행 시간 응답 헤더 추가
+ *  - X-SQL-Count, X-SQL-Time-Ms
+ *  - 헤더는 응답 본문을 처음 내보내는 시점에 기록
+ *    (OSIV 로 직렬화 중에 실행되는 지연 로딩 SQL 까지 최대한 포함)
+ */
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String SQL_COUNT_HEADER = "X-SQL-Count";
+    public static final String SQL_TIME_HEADER = "X-SQL-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementContext context = SqlStatementContext.open();
+        SqlStatementResponseWrapper wrapper = new SqlStatementResponseWrapper(response, context);
+        try {
+            filterChain.doFilter(request, wrapper);
+            wrapper.writeHeaders();     // 본문이 없는 응답
+        } finally {
+            SqlStatementContext.close();
+        }
+    }
+
+    /**
+     * 응답이 커밋되기 직전에 헤더를 기록하는 래퍼
+     */
+    static class SqlStatementResponseWrapper extends HttpServletResponseWrapper {
+
+        private final SqlStatementContext context;
+        private boolean headersWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        SqlStatementResponseWrapper(HttpServletResponse response, SqlStatementContext context) {
+            super(response);
+            this.context = context;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(SQL_COUNT_HEADER, String.valueOf(context.getCount()));
+            setHeader(SQL_TIME_HEADER, String.valueOf(context.getElapsedMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new HeaderWritingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new HeaderWritingWriter(super.getWriter());
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        private class HeaderWritingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            HeaderWritingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                writeHeaders();
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                writeHeaders();
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writeHeaders();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writeHeaders();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+
+        private class HeaderWritingWriter extends PrintWriter {
+
+            HeaderWritingWriter(PrintWriter delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public void write(int c) {
+                writeHeaders();
+                super.write(c);
+            }
+
+            @Override
+            public void write(char[] buf, int off, int len) {
+                writeHeaders();
+                super.write(buf, off, len);
+            }
+
+            @Override
+            public void write(String s, int off, int len) {
+                writeHeaders();
+                super.write(s, off, len);
+            }
+
+            @Override
+            public void flush() {
+                writeHeaders();
+                super.flush();
+            }
+
+            @Override
+            public void close() {
+                writeHeaders();
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jpabook.jpashop.exception.NPlusOneQueryException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 (빈으로 등록하면 p6spy-spring-boot-starter 가 자동으로 연결)
+ *  - 요청별 SQL 실행 수, 실행 시간 집계
+ *  - 같은 모양의 SELECT 가 한 요청에서 threshold 번 이상 실행되면 N + 1 으로 판단
+ *      (insert, update batch 는 같은 SQL 을 반복하는 것이 정상이므로 제외)
+ *      - 기본은 경고 로그, fail-on-detection 이면 예외 (테스트 설정)
+ */
+@Slf4j
+@Component
+public class SqlStatementListener extends SimpleJdbcEventListener {
+
+    @Value("${jpashop.sql.n-plus-one.threshold:10}")
+    private int threshold;
+
+    @Value("${jpashop.sql.n-plus-one.fail-on-detection:false}")
+    private boolean failOnDetection;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementContext context = SqlStatementContext.current();
+        if (context == null) {
+            return;
+        }
+
+        String sql = statementInformation.getSql();
+        int repeated = context.record(sql, timeElapsedNanos);
+        if (repeated == threshold && isQuery(sql)) {
+            String message = "N + 1 의심: 같은 SQL 이 한 요청에서 " + threshold + "번 실행되었습니다. sql=" + sql;
+            if (failOnDetection) {
+                throw new NPlusOneQueryException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, "select", 0, 6)
+                || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+}
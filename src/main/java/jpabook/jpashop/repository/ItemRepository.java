@@ -1,16 +1,27 @@
 package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
-import java.util.List;
+import java.sql.PreparedStatement;
+import java.util.*;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -30,9 +41,153 @@ public class ItemRepository {
 
     /**
      * 전체 조회
+     *  - 쿼리 캐시 : item 테이블이 변경되면 자동 무효화
      */
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.CACHEABLE, true)
                 .getResultList();
     }
+
+    /**
+     * 여러 건 조회 (IN 쿼리 1번)
+     */
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고 차감 (조건부 UPDATE)
+     *  - 재고 확인과 차감을 DB 에서 한 번에 처리 -> 동시 주문에도 갱신 손실, 초과 판매 X
+     *  - 행 잠금은 UPDATE 한 문장 동안만 잡는다.
+     *  - 여러 상품은 JDBC batch 로 한 번에 전송, 상품 id 순으로 잠가서 주문 간 데드락 방지
+     *
+     * @param quantities 상품 id -> 차감 수량
+     */
+    public void removeStocks(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        em.flush(); // JDBC 로 직접 실행하므로 쓰기 지연 SQL 먼저 반영
+
+        int[] updated = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update item set stock_quantity = stock_quantity - ?" +
+                            " where item_id = ? and stock_quantity >= ?")) {
+                for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.setInt(3, entry.getValue());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+
+        for (int count : updated) {
+            if (count == 0) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        }
+        evictAfterCompletion(sorted.keySet());
+        sorted.keySet().forEach(this::refreshIfLoaded);
+    }
+
+    /**
+     * 재고 증감 (조건부 UPDATE, 입고, 재고 조정)
+     *  - 상품을 조회하지 않고 JDBC batch 로 UPDATE 만 전송 (JDBC_BATCH_SIZE 개씩)
+     *  - 결과 재고가 음수가 되거나 int 범위를 넘는 상품은 변경하지 않는다.
+     *      - 범위 확인은 컬럼 쪽 덧셈 없이 비교만 (stock_quantity + ? 가 INTEGER overflow 로 batch 전체를 실패시키지 않도록)
+     *  - 상품 id 순으로 잠가서 주문, 다른 재고 조정과 데드락 방지
+     *
+     * @param deltas 상품 id -> 증감 수량 (음수면 차감)
+     * @return 변경되지 않은 상품 id (없는 상품이거나 재고 부족, 최대 재고 초과)
+     */
+    public Set<Long> addStocks(Map<Long, Integer> deltas) {
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(new TreeMap<>(deltas).entrySet());
+        em.flush(); // JDBC 로 직접 실행하므로 쓰기 지연 SQL 먼저 반영
+
+        Set<Long> unchanged = em.unwrap(Session.class).doReturningWork(connection -> {
+            Set<Long> notUpdated = new HashSet<>();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update item set stock_quantity = stock_quantity + ?" +
+                            " where item_id = ? and stock_quantity >= ? and stock_quantity <= ?")) {
+                for (int from = 0; from < sorted.size(); from += JDBC_BATCH_SIZE) {
+                    List<Map.Entry<Long, Integer>> batch = sorted.subList(from, Math.min(from + JDBC_BATCH_SIZE, sorted.size()));
+                    for (Map.Entry<Long, Integer> entry : batch) {
+                        long delta = entry.getValue();
+                        ps.setInt(1, entry.getValue());
+                        ps.setLong(2, entry.getKey());
+                        ps.setLong(3, -delta);                      // 결과 >= 0
+                        ps.setLong(4, Integer.MAX_VALUE - delta);   // 결과 <= Integer.MAX_VALUE
+                        ps.addBatch();
+                    }
+                    int[] updated = ps.executeBatch();
+                    for (int i = 0; i < updated.length; i++) {
+                        // 드라이버가 건수를 알려주지 않으면(Statement.SUCCESS_NO_INFO) 변경된 것으로 본다.
+                        if (updated[i] == 0) {
+                            notUpdated.add(batch.get(i).getKey());
+                        }
+                    }
+                }
+            }
+            return notUpdated;
+        });
+
+        List<Long> changed = new ArrayList<>(sorted.size());
+        for (Map.Entry<Long, Integer> entry : sorted) {
+            if (!unchanged.contains(entry.getKey())) {
+                changed.add(entry.getKey());
+            }
+        }
+        evictAfterCompletion(changed);
+        changed.forEach(this::refreshIfLoaded);
+        return unchanged;
+    }
+
+    /**
+     * 존재하는 상품 id (엔티티를 만들지 않고 id 만 조회)
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            existing.addAll(em.createQuery("select i.id from Item i where i.id in :ids", Long.class)
+                    .setParameter("ids", list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size())))
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * JDBC 로 직접 바꾼 상품은 2차 캐시가 모르므로 직접 비운다.
+     *  - 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시에 올릴 수 있으므로 트랜잭션 종료 후 한 번 더 비운다.
+     */
+    private void evictAfterCompletion(Collection<Long> itemIds) {
+        javax.persistence.Cache cache = em.getEntityManagerFactory().getCache();
+        itemIds.forEach(id -> cache.evict(Item.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(itemIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(Item.class, id));
+                }
+            });
+        }
+    }
+
+    /**
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로
+     * 이미 조회된 Item 은 DB 값으로 다시 맞춘다. (오래된 재고가 변경 감지로 덮어써지지 않도록)
+     */
+    private void refreshIfLoaded(Long itemId) {
+        // getReference 는 조회하지 않은 상품마다 프록시를 만들므로 영속성 컨텍스트를 직접 확인
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Item.class);
+        Object item = session.getPersistenceContext().getEntity(session.generateEntityKey(itemId, persister));
+        if (item != null) {
+            em.refresh(item);
+        }
+    }
 }
@@ -2,11 +2,13 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -21,12 +23,21 @@ public class MemberRepository {
         em.persist(member);
     }
 
+    /**
+     * 쓰기 지연 SQL 즉시 반영
+     *  - 제약 조건 위반을 이 시점에 DataIntegrityViolationException 으로 받기 위해 사용
+     */
+    public void flush() {
+        em.flush();
+    }
+
     public Member findOne(Long id) {
         return em.find(Member.class, id);
     }
 
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.CACHEABLE, true)   // 회원 목록, 주문 폼에서 반복 조회
                 .getResultList();
     }
 
@@ -35,4 +46,24 @@ public class MemberRepository {
                 .setParameter("name", name)
                 .getResultList();
     }
+
+    /**
+     * 이름 존재 여부 (엔티티를 만들지 않고 uk_member_name 인덱스로 id 하나만 조회)
+     */
+    public boolean existsByName(String name) {
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 전체 회원 이름 (트랜잭션 안에서 사용하고 스트림은 반드시 닫는다.)
+     */
+    public Stream<String> streamAllNames() {
+        return em.createQuery("select m.name from Member m", String.class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream();
+    }
 }
@@ -0,0 +1,47 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderIdempotency;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderIdempotencyRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderIdempotency idempotency) {
+        em.persist(idempotency);
+        em.flush();     // 같은 키가 이미 있으면 주문 트랜잭션 안에서 바로 PK 위반
+    }
+
+    public OrderIdempotency findOne(String key) {
+        return em.find(OrderIdempotency.class, key);
+    }
+
+    /**
+     * 만료된 기록이면 삭제 (같은 키로 새로 저장하기 전)
+     *  - flush 는 INSERT 를 DELETE 보다 먼저 실행하므로 바로 반영
+     */
+    public void deleteIfExpired(String key, LocalDateTime expiredBefore) {
+        OrderIdempotency idempotency = em.find(OrderIdempotency.class, key);
+        if (idempotency != null && idempotency.isExpired(expiredBefore)) {
+            em.remove(idempotency);
+            em.flush();
+        }
+    }
+
+    /**
+     * 만료된 기록 전체 삭제 (created_at 인덱스)
+     *
+     * @return 삭제된 수
+     */
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return em.createQuery("delete from OrderIdempotency i where i.createdAt < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
@@ -1,15 +1,18 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
@@ -25,8 +28,19 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    /**
+     * 주문 조회 + 행 잠금 (select ... for update)
+     *  - 같은 주문을 동시에 취소해도 한 트랜잭션만 상태를 확인하고 바꾼다.
+     */
+    public Order findOneForUpdate(Long id) {
+        return em.find(Order.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    private static final char LIKE_ESCAPE = '\\';
+
     /**
      * JPQL 로 처리
+     *  - 회원 이름은 앞부분 일치 검색 (uk_member_name 인덱스 범위 조회)
      */
     public List<Order> findAllByString(OrderSearch orderSearch) {
         //language=JPAQL
@@ -52,7 +66,7 @@ public class OrderRepository {
             } else {
                 jpql += " and";
             }
-            jpql += " m.name like :name";
+            jpql += " m.name like :name escape '" + LIKE_ESCAPE + "'";
         }
 
 
@@ -63,7 +77,7 @@ public class OrderRepository {
             query = query.setParameter("status", orderSearch.getOrderStatus());
         }
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
+            query = query.setParameter("name", escapeLike(orderSearch.getMemberName()) + "%");
         }
 
         return query.getResultList();
@@ -91,10 +105,24 @@ public class OrderRepository {
             criteria.add(status);
         }
 
-        // 회원 이름으로 검색
+        // 회원 이름으로 검색 (부분 일치)
         if (StringUtils.hasText(orderSearch.getMemberName())) {
+            String name = orderSearch.getMemberName();
+            if (name.length() >= Member.NAME_GRAM_SIZE) {
+                // n-gram 인덱스로 후보 회원을 먼저 좁힌다. (모든 gram 을 가진 회원)
+                Set<String> grams = Member.toNameGrams(name);
+                Subquery<Long> candidates = cq.subquery(Long.class);
+                Root<Member> cm = candidates.from(Member.class);
+                Join<Member, String> gram = cm.join("nameGrams");
+                candidates.select(cm.get("id"))
+                        .where(gram.in(grams))
+                        .groupBy(cm.get("id"))
+                        .having(cb.equal(cb.count(gram), (long) grams.size()));
+                criteria.add(m.get("id").in(candidates));
+            }
+            // gram 순서까지 확인 (1글자 검색은 이 조건만으로 조회)
             Predicate memberName =
-                    cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
+                    cb.like(m.<String>get("name"), "%" + escapeLike(name) + "%", LIKE_ESCAPE);
             criteria.add(memberName);
         }
 
@@ -121,6 +149,30 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * 커서(keyset) 페이징
+     *  - offset 처럼 앞의 행을 읽고 버리지 않고 (order_date, order_id) 인덱스에서 바로 다음 행부터 조회
+     *  - 몇 번째 페이지든 비용이 첫 페이지와 같다.
+     */
+    public List<Order> findAllWithMemberDeliveryAfter(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            jpql += " where o.orderDate >= :orderDate" +
+                    " and (o.orderDate > :orderDate or o.id > :orderId)";
+        }
+        jpql += " order by o.orderDate, o.id";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate())
+                    .setParameter("orderId", cursor.getOrderId());
+        }
+        return query.getResultList();
+    }
+
     public List<Order> findAllWithItem() {
         return em.createQuery(
                         "select distinct o from Order o" +
@@ -130,4 +182,10 @@ public class OrderRepository {
                                 " join fetch oi.item i", Order.class)
                 .getResultList();
     }
-}
\ No newline at end of file
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
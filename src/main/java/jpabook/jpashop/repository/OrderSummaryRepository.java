@@ -0,0 +1,100 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private static final String REBUILD_SQL =
+            "insert into order_summary" +
+                    " (order_id, member_id, member_name, city, street, zipcode, status, order_date, total_price, item_count)" +
+                    " select o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date," +
+                    " o.total_price, sum(oi.count)" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id" +
+                    " join order_item oi on oi.order_id = o.order_id" +
+                    " where o.order_id > :fromId and o.order_id <= :toId" +
+                    " group by o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date, o.total_price";
+
+    private final EntityManager em;
+
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 주문 요약 검색 (order_summary 한 테이블만 조회)
+     *  - 주문 상태 : (status, order_id) 인덱스
+     *  - 회원 이름 : 앞부분 일치, member_name 인덱스
+     */
+    public List<OrderSummary> findAll(OrderSearch orderSearch, int offset, int limit) {
+        String jpql = "select s from OrderSummary s where 1 = 1";
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and s.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and s.memberName like :name escape '\\'";
+        }
+        jpql += " order by s.orderId desc";
+
+        TypedQuery<OrderSummary> query = em.createQuery(jpql, OrderSummary.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", OrderRepository.escapeLike(orderSearch.getMemberName()) + "%");
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * 회원 이름 변경을 요약에 반영 (bulk UPDATE, member_id 로 찾는다.)
+     *
+     * @return 변경된 요약 수
+     */
+    public int updateMemberName(Long memberId, String name) {
+        return em.createQuery("update OrderSummary s set s.memberName = :name where s.memberId = :memberId")
+                .setParameter("name", name)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 마지막 주문 id (주문이 없으면 null)
+     */
+    public Long findMaxOrderId() {
+        return em.createQuery("select max(o.id) from Order o", Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * 주문 id 범위 (fromId, toId] 의 요약을 원본 테이블에서 다시 생성
+     *
+     * @return 생성된 요약 수
+     */
+    public int rebuild(long fromId, long toId) {
+        em.createQuery("delete from OrderSummary s where s.orderId > :fromId and s.orderId <= :toId")
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+        return em.createNativeQuery(REBUILD_SQL)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,88 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * order_id 순으로 정렬된 플랫 데이터를 주문 단위로 묶기 (merge grouping)
+ *  - 같은 주문의 행은 연속해서 들어오므로 직전 주문과 id 만 비교 -> 해시, 정렬 X, 한 번만 순회
+ *  - OrderQueryDto 는 주문당 한 번만 생성
+ *  - 주문 하나가 끝날 때마다 downstream 으로 넘기므로 스트리밍에도 사용
+ */
+public class OrderFlatGrouping implements Consumer<OrderFlatDto> {
+
+    private final Consumer<OrderQueryDto> downstream;
+    private OrderQueryDto current;
+
+    public OrderFlatGrouping(Consumer<OrderQueryDto> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(OrderFlatDto row) {
+        if (current == null || !current.getOrderId().equals(row.getOrderId())) {
+            finish();
+            current = new OrderQueryDto(row.getOrderId(), row.getName(), row.getOrderDate(),
+                    row.getOrderStatus(), row.getAddress(), new ArrayList<>());
+        }
+        current.getOrderItems().add(
+                new OrderItemQueryDto(row.getOrderId(), row.getItemName(), row.getOrderPrice(), row.getCount()));
+    }
+
+    /**
+     * 마지막 주문 내보내기
+     */
+    public void finish() {
+        if (current != null) {
+            downstream.accept(current);
+            current = null;
+        }
+    }
+
+    /**
+     * order_id 순 플랫 데이터 -> 주문 목록 (입력 순서 유지)
+     */
+    public static Collector<OrderFlatDto, ?, List<OrderQueryDto>> toOrderQueryDtos() {
+        return Collector.<OrderFlatDto, Accumulator, List<OrderQueryDto>>of(
+                Accumulator::new,
+                Accumulator::add,
+                Accumulator::merge,
+                Accumulator::finish);
+    }
+
+    private static class Accumulator {
+
+        private final List<OrderQueryDto> orders = new ArrayList<>();
+        private final OrderFlatGrouping grouping = new OrderFlatGrouping(orders::add);
+
+        void add(OrderFlatDto row) {
+            grouping.accept(row);
+        }
+
+        /**
+         * 병렬 스트림 : 경계에 걸린 주문은 하나로 합친다.
+         */
+        Accumulator merge(Accumulator right) {
+            grouping.finish();
+            right.grouping.finish();
+            List<OrderQueryDto> rightOrders = right.orders;
+            if (!orders.isEmpty() && !rightOrders.isEmpty()) {
+                OrderQueryDto last = orders.get(orders.size() - 1);
+                OrderQueryDto first = rightOrders.get(0);
+                if (last.getOrderId().equals(first.getOrderId())) {
+                    last.getOrderItems().addAll(first.getOrderItems());
+                    rightOrders = rightOrders.subList(1, rightOrders.size());
+                }
+            }
+            orders.addAll(rightOrders);
+            return this;
+        }
+
+        List<OrderQueryDto> finish() {
+            grouping.finish();
+            return orders;
+        }
+    }
+}
@@ -1,19 +1,90 @@
 package jpabook.jpashop.repository.order.query;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @RequiredArgsConstructor
 @Repository
 public class OrderQueryRepository {
 
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String ORDER_ITEMS_IN_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                    " from OrderItem oi" +
+                    " join oi.item i" +
+                    " where oi.order.id in :orderIds";
+
     private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * IN 절 하나에 들어가는 id 수 (모든 청크를 같은 길이로 맞춰서 실행 계획 재사용)
+     */
+    @Value("${jpashop.query.in-chunk-size:1000}")
+    private int inChunkSize;
+
+    /**
+     * 워커 스레드에서 동시에 실행하는 청크 수 (전체 요청 합계)
+     *  - 워커 청크마다 커넥션을 하나씩 더 사용하므로 커넥션 풀 크기보다 작아야 한다.
+     */
+    @Value("${jpashop.query.in-parallelism:4}")
+    private int inParallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private ExecutorService inQueryExecutor;
+    private Semaphore inQueryPermits;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void startInQueryExecutor() {
+        if (inParallelism < 1 || inParallelism >= connectionPoolSize) {
+            throw new IllegalStateException("jpashop.query.in-parallelism 은 1 이상, 커넥션 풀 크기(" +
+                    connectionPoolSize + ")보다 작아야 합니다: " + inParallelism);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        inQueryExecutor = Executors.newFixedThreadPool(inParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "order-in-query-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        inQueryPermits = new Semaphore(inParallelism);
+
+        // 읽기 전용 트랜잭션 -> 복제본 라우팅(jpashop.datasource.routing) 대상
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void stopInQueryExecutor() {
+        inQueryExecutor.shutdownNow();
+    }
 
     /**
      * 컬렉션은 별도 조회
@@ -35,7 +106,7 @@ public class OrderQueryRepository {
 
     /**
      * 최적화
-     * Query: 루트 1번, 컬렉션 1번
+     * Query: 루트 1번, 컬렉션 1번 (주문 수가 많으면 청크 수만큼)
      * 데티어를 한꺼번에 처리할 때 많이 사용하는 방식
      */
     public List<OrderQueryDto> findAllByDto_optimization() {
@@ -44,34 +115,150 @@ public class OrderQueryRepository {
         List<OrderQueryDto> result = findOrders();
 
         // orderItem 컬렉션을 MAP 한방에 조회
-        List<Long> orderIds = toOrderIds(result);
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+        long[] orderIds = toOrderIds(result);
+        OrderItemIndex orderItemIndex = findOrderItemIndex(orderIds);
 
         //루프를 돌면서 컬렉션 추가(추가 쿼리 실행 X)
-        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        result.forEach(o -> o.setOrderItems(orderItemIndex.get(o.getOrderId())));
 
         return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                                " from OrderItem oi" +
-                                " join oi.item i" +
-                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+    /**
+     * orderItem IN 조회
+     *  - id 를 정렬해서 inChunkSize 개씩 나누고, 마지막 청크는 마지막 id 로 채워서 길이를 맞춘다.
+     *  - 청크가 하나면 현재 EntityManager 로 바로 조회
+     *  - 여러 개면 워커 허용 수(inParallelism)만큼 워커 스레드에서 읽기 전용 트랜잭션으로 동시에 조회
+     *      - 허용 수가 없거나 워커가 아직 시작하지 않은 청크는 호출한 스레드가 자기 커넥션으로 직접 조회
+     *      - 호출한 스레드는 커넥션을 이미 얻은 워커만 기다린다. (커넥션을 든 채 풀을 기다리는 교착 X)
+     */
+    private OrderItemIndex findOrderItemIndex(long[] orderIds) {
+        if (orderIds.length == 0) {
+            return new OrderItemIndex(Collections.emptyList());
+        }
+        long[] sorted = orderIds.clone();
+        Arrays.sort(sorted);
+
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.length; from += inChunkSize) {
+            chunks.add(paddedChunk(sorted, from));
+        }
+
+        if (chunks.size() == 1) {
+            return new OrderItemIndex(em.createQuery(ORDER_ITEMS_IN_QUERY, OrderItemQueryDto.class)
+                    .setParameter("orderIds", chunks.get(0))
+                    .getResultList());
+        }
+
+        // 워커 스레드에서도 같은 요청으로 보고 read-your-writes 적용
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        List<FutureTask<List<OrderItemQueryDto>>> tasks = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            FutureTask<List<OrderItemQueryDto>> task = new FutureTask<>(() -> findOrderItemsReadOnly(chunk));
+            tasks.add(task);
+            if (inQueryPermits.tryAcquire()) {
+                inQueryExecutor.execute(() -> runWithRequest(task, requestAttributes));
+            }
+        }
+
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        try {
+            for (FutureTask<List<OrderItemQueryDto>> task : tasks) {
+                task.run();     // 워커가 시작하지 않았으면 직접 실행, 이미 시작했으면 아무것도 안 함
+                orderItems.addAll(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(t -> t.cancel(true));
+            throw new IllegalStateException("orderItem 조회 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            tasks.forEach(t -> t.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return new OrderItemIndex(orderItems);
+    }
+
+    private List<Long> paddedChunk(long[] sorted, int from) {
+        int to = Math.min(from + inChunkSize, sorted.length);
+        List<Long> chunk = new ArrayList<>(inChunkSize);
+        for (int i = from; i < to; i++) {
+            chunk.add(sorted[i]);
+        }
+        while (chunk.size() < inChunkSize) {
+            chunk.add(sorted[to - 1]);  // 중복 id 는 결과에 영향 X
+        }
+        return chunk;
+    }
+
+    private void runWithRequest(FutureTask<?> task, RequestAttributes requestAttributes) {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            task.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            inQueryPermits.release();
+        }
+    }
+
+    /**
+     * 워커 스레드 : 새 읽기 전용 트랜잭션 (커넥션을 얻기 전에 읽기 전용이 정해져서 복제본으로 라우팅)
+     * 호출한 스레드 : 진행 중인 트랜잭션에 참여, 없으면 open-in-view 세션의 커넥션으로 읽기 전용 트랜잭션
+     */
+    private List<OrderItemQueryDto> findOrderItemsReadOnly(List<Long> orderIds) {
+        return readOnlyTx.execute(status -> em.createQuery(ORDER_ITEMS_IN_QUERY, OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
-                .getResultList();
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList());
+    }
+
+    /**
+     * 주문 id -> orderItem 목록
+     *  - Map<Long, List> 대신 정렬된 long[] 을 이진 탐색 (박싱, 해시 엔트리 X)
+     */
+    static final class OrderItemIndex {
+
+        private final long[] orderIds;
+        private final int[] starts;
+        private final List<OrderItemQueryDto> orderItems;
+
+        OrderItemIndex(List<OrderItemQueryDto> orderItems) {
+            List<OrderItemQueryDto> sorted = new ArrayList<>(orderItems);
+            sorted.sort(Comparator.comparingLong(OrderItemQueryDto::getOrderId));
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        return orderItemMap;
+            long[] ids = new long[sorted.size()];
+            int[] starts = new int[sorted.size() + 1];
+            int size = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                long orderId = sorted.get(i).getOrderId();
+                if (size == 0 || ids[size - 1] != orderId) {
+                    ids[size] = orderId;
+                    starts[size] = i;
+                    size++;
+                }
+            }
+            starts[size] = sorted.size();
+
+            this.orderIds = Arrays.copyOf(ids, size);
+            this.starts = Arrays.copyOf(starts, size + 1);
+            this.orderItems = sorted;
+        }
+
+        List<OrderItemQueryDto> get(long orderId) {
+            int index = Arrays.binarySearch(orderIds, orderId);
+            if (index < 0) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(orderItems.subList(starts[index], starts[index + 1]));
+        }
     }
 
-    private List<Long> toOrderIds(List<OrderQueryDto> result) {
-        List<Long> orderIds = result.stream()
-                .map(o -> o.getOrderId())
-                .collect(Collectors.toList());
-        return orderIds;
+    private long[] toOrderIds(List<OrderQueryDto> result) {
+        return result.stream()
+                .mapToLong(o -> o.getOrderId())
+                .toArray();
     }
 
     /**
@@ -99,14 +286,73 @@ public class OrderQueryRepository {
     }
 
 
+    private static final String ORDER_FLAT_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                    " from Order o" +
+                    " join o.member m" +
+                    " join o.delivery d" +
+                    " join o.orderItems oi" +
+                    " join oi.item i";
+
+    /**
+     * 플랫 데이터 (order_id 순, OrderFlatGrouping 으로 한 번에 묶을 수 있도록)
+     */
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
-                                " from Order o" +
-                                " join o.member m" +
-                                " join o.delivery d" +
-                                " join o.orderItems oi" +
-                                " join oi.item i", OrderFlatDto.class)
+        return em.createQuery(ORDER_FLAT_QUERY + " order by o.id", OrderFlatDto.class)
                 .getResultList();
     }
+
+    /**
+     * 플랫 데이터 커서(keyset) 페이징 1. 주문 id 페이지
+     *  - 조인 결과(orderItem 단위)가 아니라 주문 단위로 페이징해야 하므로 주문 id 를 먼저 조회
+     *  - orderId 다음 주문부터 limit 개 (PK 인덱스에서 바로 시작), 첫 페이지는 0
+     *  - 다음 커서는 이 id 페이지로 계산 (주문상품이 없는 주문은 플랫 조회 결과에 없다.)
+     */
+    public List<Long> findOrderIdsAfter(long orderId, int limit) {
+        return em.createQuery("select o.id from Order o where o.id > :orderId order by o.id", Long.class)
+                .setParameter("orderId", orderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 플랫 데이터 커서(keyset) 페이징 2. 주문 id 들의 플랫 데이터
+     */
+    public List<OrderFlatDto> findAllByDto_flat(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery(ORDER_FLAT_QUERY + " where o.id in :orderIds order by o.id", OrderFlatDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 플랫 데이터 스트리밍 조회
+     *  - StatelessSession + 전방향(FORWARD_ONLY) 커서로 한 행씩 읽음 (영속성 컨텍스트 X)
+     *  - order_id 순으로 읽으므로 주문 하나가 끝날 때마다 OrderQueryDto 로 묶어서 consumer 에 넘긴다.
+     *  - 전체 결과를 메모리에 올리지 않으므로 주문 수와 상관없이 힙 사용량 일정
+     */
+    public void streamAllByDto_flat(Consumer<OrderQueryDto> consumer) {
+        SessionFactory sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            Transaction tx = session.beginTransaction();
+            ScrollableResults rows = session.createQuery(ORDER_FLAT_QUERY + " order by o.id")
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                OrderFlatGrouping grouping = new OrderFlatGrouping(consumer);
+                while (rows.next()) {
+                    grouping.accept((OrderFlatDto) rows.get(0));
+                }
+                grouping.finish();
+            } finally {
+                rows.close();
+            }
+            tx.commit();
+        } finally {
+            session.close();
+        }
+    }
 }
@@ -15,10 +15,26 @@ public class OrderSimpleQueryRepository {
 
     public List<OrderSimpleQueryDto> findOrderDtos() {
         return em.createQuery(
-                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address, o.totalPrice) " +
                                 " from Order o" +
                                 " join o.member m" +
                                 " join o.delivery d", OrderSimpleQueryDto.class)
                 .getResultList();
     }
+
+    /**
+     * 총 금액 순 조회
+     *  - 저장된 total_price 로 정렬하므로 order_item 조인, 집계 X ((total_price, order_id) 인덱스)
+     */
+    public List<OrderSimpleQueryDto> findOrderDtosOrderByTotalPrice(int offset, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address, o.totalPrice) " +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " order by o.totalPrice desc, o.id desc", OrderSimpleQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
@@ -0,0 +1,59 @@
+package jpabook.jpashop.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 애그리거트(회원, 주문, 상품)별 변경 버전 (ETag 계산용)
+ *  - 변경하는 서비스 메서드에서 changed() 호출 -> 커밋 후에 버전 증가 (롤백되면 그대로)
+ *  - 버전은 메모리에만 있으므로 서버마다 다르고, 재시작하면 epoch 가 바뀌어 이전 ETag 는 모두 무효
+ *  - 서비스를 거치지 않는 변경(DB 직접 수정 등)은 알 수 없다.
+ */
+@Component
+public class ChangeVersions {
+
+    public enum Aggregate {
+        MEMBER, ORDER, ITEM
+    }
+
+    private final long epoch = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+
+    public ChangeVersions() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+
+    public void changed(Aggregate aggregate) {
+        AtomicLong version = versions.get(aggregate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 약한 ETag (W/"epoch-버전-버전...-표현")
+     *  - variant : 같은 자원의 응답 형식 (json, cbor ...), 형식마다 다른 ETag
+     */
+    public String etag(String variant, Aggregate... aggregates) {
+        StringBuilder tag = new StringBuilder("W/\"").append(Long.toString(epoch, 36));
+        for (Aggregate aggregate : aggregates) {
+            tag.append('-').append(versions.get(aggregate).get());
+        }
+        return tag.append('-').append(variant).append('"').toString();
+    }
+}
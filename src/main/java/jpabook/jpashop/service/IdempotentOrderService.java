@@ -0,0 +1,190 @@
+package jpabook.jpashop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jpabook.jpashop.domain.OrderIdempotency;
+import jpabook.jpashop.exception.IdempotencyKeyReusedException;
+import jpabook.jpashop.exception.InvalidIdempotencyKeyException;
+import jpabook.jpashop.repository.OrderIdempotencyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 중복 방지 (Idempotency-Key)
+ *  - 같은 키로 다시 요청하면 DB 를 거치지 않고 처음 주문의 id 를 돌려준다. (재시도로 인한 중복 주문, 재고 이중 차감 X)
+ *  - 처리 중인 같은 키의 요청은 처음 요청의 결과를 기다렸다가 같은 id (동시 재시도 합치기)
+ *  - 같은 키로 다른 내용(회원, 상품, 수량)을 요청하면 예외 (422), 키가 너무 길면 400
+ *  - 실패한 요청은 기록하지 않는다. -> 같은 키로 다시 시도 가능
+ *  - 저장소 : Caffeine (최대 개수, 저장 후 TTL), persist 면 주문과 같은 트랜잭션에서 DB(order_idempotency)에도 저장
+ *      - 메모리에 없으면 DB 확인 -> 재시작, 다른 서버로 온 재시도도 처리
+ *      - DB 기록도 TTL 이 지나면 무시하고, purge-interval 마다 삭제
+ */
+@Slf4j
+@Service
+public class IdempotentOrderService {
+
+    private final OrderService orderService;
+    private final OrderIdempotencyRepository orderIdempotencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Request> requests;
+    private final Duration ttl;
+
+    @Value("${jpashop.order.idempotency.persist:false}")
+    private boolean persist;
+
+    public IdempotentOrderService(OrderService orderService,
+                                  OrderIdempotencyRepository orderIdempotencyRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.order.idempotency.maximum-size:100000}") long maximumSize,
+                                  @Value("${jpashop.order.idempotency.ttl:24h}") Duration ttl) {
+        this.orderService = orderService;
+        this.orderIdempotencyRepository = orderIdempotencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param idempotencyKey 없으면 중복 방지 없이 주문
+     */
+    public Long order(String idempotencyKey, Long memberId, List<OrderLineDto> orderLines) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return orderService.order(memberId, orderLines);
+        }
+        if (idempotencyKey.length() > OrderIdempotency.MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key 는 " + OrderIdempotency.MAX_KEY_LENGTH + "자 이하입니다.");
+        }
+
+        Request request = new Request(fingerprint(memberId, orderLines));
+        Request existing = requests.asMap().putIfAbsent(idempotencyKey, request);
+        if (existing != null) {
+            return existing.awaitOrderId(request.fingerprint);
+        }
+
+        try {
+            Long orderId = persist
+                    ? orderPersisted(idempotencyKey, request.fingerprint, memberId, orderLines)
+                    : orderService.order(memberId, orderLines);
+            request.result.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            requests.asMap().remove(idempotencyKey, request);
+            request.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * DB 기록 확인 -> 없으면 주문과 기록을 한 트랜잭션으로
+     *  - 만료된 기록은 없는 것으로 보고 같은 트랜잭션에서 지운 뒤 새로 저장
+     *  - 다른 서버가 같은 키로 먼저 저장했으면(PK 위반) 주문은 롤백되고 그 서버의 주문 id
+     */
+    private Long orderPersisted(String key, String fingerprint, Long memberId, List<OrderLineDto> orderLines) {
+        Long recorded = findRecordedOrderId(key, fingerprint);
+        if (recorded != null) {
+            return recorded;
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                orderIdempotencyRepository.deleteIfExpired(key, expiredBefore());
+                Long orderId = orderService.order(memberId, orderLines);
+                orderIdempotencyRepository.save(OrderIdempotency.create(key, fingerprint, orderId));
+                return orderId;
+            });
+        } catch (DataIntegrityViolationException e) {
+            recorded = findRecordedOrderId(key, fingerprint);
+            if (recorded == null) {
+                throw e;
+            }
+            log.info("다른 요청이 먼저 처리한 Idempotency-Key : {}", key);
+            return recorded;
+        }
+    }
+
+    private Long findRecordedOrderId(String key, String fingerprint) {
+        OrderIdempotency recorded = transactionTemplate.execute(status -> orderIdempotencyRepository.findOne(key));
+        if (recorded == null || recorded.isExpired(expiredBefore())) {
+            return null;
+        }
+        checkFingerprint(recorded.getFingerprint(), fingerprint);
+        return recorded.getOrderId();
+    }
+
+    /**
+     * 만료된 DB 기록 삭제 (persist 일 때만)
+     *
+     * @return 삭제된 수
+     */
+    @Scheduled(fixedDelayString = "${jpashop.order.idempotency.purge-interval:PT1H}",
+            initialDelayString = "${jpashop.order.idempotency.purge-interval:PT1H}")
+    public int purgeExpired() {
+        if (!persist) {
+            return 0;
+        }
+        Integer purged = transactionTemplate.execute(status -> orderIdempotencyRepository.deleteCreatedBefore(expiredBefore()));
+        if (purged != null && purged > 0) {
+            log.info("만료된 Idempotency-Key 삭제 : {}", purged);
+        }
+        return purged == null ? 0 : purged;
+    }
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minus(ttl);
+    }
+
+    /**
+     * 회원 + 상품별 수량 (같은 상품은 합산, 상품 id 순) -> 줄 순서가 달라도 같은 요청
+     */
+    static String fingerprint(Long memberId, List<OrderLineDto> orderLines) {
+        Map<Long, Integer> quantities = orderLines.stream()
+                .collect(Collectors.toMap(OrderLineDto::getItemId, OrderLineDto::getCount, Integer::sum, TreeMap::new));
+        return memberId + ":" + quantities;
+    }
+
+    private static void checkFingerprint(String original, String requested) {
+        if (!original.equals(requested)) {
+            throw new IdempotencyKeyReusedException("같은 Idempotency-Key 로 다른 주문을 요청했습니다.");
+        }
+    }
+
+    /**
+     * 키 하나의 요청 내용과 결과 (처리 중이면 미완료)
+     */
+    private static class Request {
+
+        private final String fingerprint;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        Request(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        Long awaitOrderId(String requestedFingerprint) {
+            checkFingerprint(fingerprint, requestedFingerprint);
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                // 처음 요청이 실패하면 기다리던 요청도 같은 예외
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+}
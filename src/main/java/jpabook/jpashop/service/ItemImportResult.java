@@ -0,0 +1,48 @@
+package jpabook.jpashop.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 상품 대량 등록 결과
+ *  - 실패한 행은 (줄 번호, 사유) 로 보고, 최대 maxErrors 건까지만 담는다.
+ */
+@Getter
+public class ItemImportResult {
+
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Getter(AccessLevel.NONE)
+    private final int maxErrors;
+
+    ItemImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void fail(long line, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
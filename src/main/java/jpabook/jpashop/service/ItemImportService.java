@@ -0,0 +1,291 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 상품 대량 등록 (CSV, NDJSON 스트리밍)
+ *  - 요청 본문을 한 줄씩 읽어서 바로 저장, 전체를 메모리에 올리지 않는다.
+ *  - 전용 EntityManager 로 chunk-size 행마다 커밋 후 영속성 컨텍스트 비움
+ *      - 새 엔티티만 persist 하므로 merge 의 select X
+ *      - insert 는 hibernate.jdbc.batch_size 단위 JDBC batch, id 는 pooled-lo 시퀀스로 미리 할당
+ *      - 2차 캐시에는 넣지 않는다. (CacheStoreMode.BYPASS)
+ *  - 잘못된 행은 건너뛰고 줄 번호와 사유를 결과로 보고, 커밋에 실패한 chunk 는 chunk 전체를 실패로 보고
+ *
+ * 컬럼(CSV 헤더, NDJSON 필드) : type(BOOK, ALBUM, MOVIE), name, price, stockQuantity,
+ *                              author, isbn, artist, etc, director, actor
+ */
+@Slf4j
+@Service
+public class ItemImportService {
+
+    private final EntityManagerFactory emf;
+    private final ObjectMapper objectMapper;
+    private final ChangeVersions changeVersions;
+
+    @Value("${jpashop.item-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${jpashop.item-import.max-errors:1000}")
+    private int maxErrors;
+
+    public ItemImportService(EntityManagerFactory emf, ObjectMapper objectMapper, ChangeVersions changeVersions) {
+        this.emf = emf;
+        this.objectMapper = objectMapper;
+        this.changeVersions = changeVersions;
+    }
+
+    /**
+     * CSV : 첫 줄은 헤더, 큰따옴표 필드("" 는 " 하나) 지원, 필드 안의 줄바꿈은 지원 X
+     */
+    public ItemImportResult importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return new ItemImportResult(maxErrors);
+        }
+        List<String> header = parseCsvLine(stripBom(headerLine));
+
+        return importRows(new RowReader(reader, 1) {
+            @Override
+            Map<String, String> parse(String line) {
+                List<String> fields = parseCsvLine(line);
+                if (fields.size() > header.size()) {
+                    throw new IllegalArgumentException("컬럼 수가 헤더보다 많습니다. (" + fields.size() + " > " + header.size() + ")");
+                }
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    values.put(header.get(i).trim(), fields.get(i));
+                }
+                return values;
+            }
+        });
+    }
+
+    /**
+     * NDJSON : 한 줄에 JSON 객체 하나
+     */
+    public ItemImportResult importNdjson(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return importRows(new RowReader(reader, 0) {
+            @Override
+            Map<String, String> parse(String line) {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("JSON 형식 오류: " + e.getOriginalMessage());
+                }
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("JSON 객체가 아닙니다.");
+                }
+                Map<String, String> values = new HashMap<>();
+                node.fields().forEachRemaining(field ->
+                        values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+                return values;
+            }
+        });
+    }
+
+    private ItemImportResult importRows(RowReader reader) throws IOException {
+        ItemImportResult result = new ItemImportResult(maxErrors);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        EntityManager em = emf.createEntityManager();
+        em.setProperty("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+        try {
+            String line;
+            while ((line = reader.nextLine()) != null) {
+                Item item;
+                try {
+                    item = toItem(reader.parse(line));
+                } catch (IllegalArgumentException e) {
+                    result.fail(reader.lineNumber, e.getMessage());
+                    continue;
+                }
+
+                if (!em.getTransaction().isActive()) {
+                    em.getTransaction().begin();
+                }
+                em.persist(item);
+                chunkLines.add(reader.lineNumber);
+
+                if (chunkLines.size() >= chunkSize) {
+                    commitChunk(em, chunkLines, result);
+                }
+            }
+            commitChunk(em, chunkLines, result);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+
+        log.info("상품 대량 등록 : 성공 {} 건, 실패 {} 건", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void commitChunk(EntityManager em, List<Long> chunkLines, ItemImportResult result) {
+        if (chunkLines.isEmpty()) {
+            return;
+        }
+        try {
+            em.getTransaction().commit();
+            result.imported(chunkLines.size());
+            changeVersions.changed(ChangeVersions.Aggregate.ITEM);
+        } catch (RuntimeException e) {
+            log.warn("상품 대량 등록 chunk 커밋 실패 : {} ~ {} 줄", chunkLines.get(0), chunkLines.get(chunkLines.size() - 1), e);
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            for (Long line : chunkLines) {
+                result.fail(line, "저장 실패: " + e.getMessage());
+            }
+        } finally {
+            em.clear();
+            chunkLines.clear();
+        }
+    }
+
+    private Item toItem(Map<String, String> values) {
+        String type = required(values, "type").toUpperCase(Locale.ROOT);
+        Item item;
+        switch (type) {
+            case "BOOK":
+                Book book = new Book();
+                book.setAuthor(optional(values, "author"));
+                book.setIsbn(optional(values, "isbn"));
+                item = book;
+                break;
+            case "ALBUM":
+                Album album = new Album();
+                album.setArtist(optional(values, "artist"));
+                album.setEtc(optional(values, "etc"));
+                item = album;
+                break;
+            case "MOVIE":
+                Movie movie = new Movie();
+                movie.setDirector(optional(values, "director"));
+                movie.setActor(optional(values, "actor"));
+                item = movie;
+                break;
+            default:
+                throw new IllegalArgumentException("type 은 BOOK, ALBUM, MOVIE 중 하나입니다. type=" + type);
+        }
+        item.setName(required(values, "name"));
+        item.setPrice(nonNegativeInt(values, "price"));
+        item.setStockQuantity(nonNegativeInt(values, "stockQuantity"));
+        return item;
+    }
+
+    private static String required(Map<String, String> values, String column) {
+        String value = optional(values, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " 값이 없습니다.");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> values, String column) {
+        String value = values.get(column);
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    private static int nonNegativeInt(Map<String, String> values, String column) {
+        String value = required(values, column);
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 는 숫자여야 합니다. " + column + "=" + value);
+        }
+        if (number < 0) {
+            throw new IllegalArgumentException(column + " 는 0 이상이어야 합니다. " + column + "=" + value);
+        }
+        return number;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("큰따옴표가 닫히지 않았습니다.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * 빈 줄은 건너뛰고 줄 번호를 센다.
+     */
+    private abstract static class RowReader {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        RowReader(BufferedReader reader, long linesAlreadyRead) {
+            this.reader = reader;
+            this.lineNumber = linesAlreadyRead;
+        }
+
+        String nextLine() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        abstract Map<String, String> parse(String line);
+    }
+}
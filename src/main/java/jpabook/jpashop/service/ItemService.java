@@ -1,5 +1,6 @@
 package jpabook.jpashop.service;
 
+import io.micrometer.core.annotation.Timed;
 import jpabook.jpashop.domain.Item;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.repository.ItemRepository;
@@ -8,6 +9,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -15,6 +20,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ChangeVersions changeVersions;
 
     /**
      * 영속성 컨텍스트가 자동 변경
@@ -22,15 +28,53 @@ public class ItemService {
     @Transactional
     public Long saveItem(Item item) {
         itemRepository.save(item);
+        changeVersions.changed(ChangeVersions.Aggregate.ITEM);
         return item.getId();
     }
 
+    @Timed(value = "jpashop.item.update", description = "상품 수정", histogram = true)
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
         Item findItem = itemRepository.findOne(itemId);
         findItem.setName(name);
         findItem.setPrice(price);
         findItem.setStockQuantity(stockQuantity);
+        changeVersions.changed(ChangeVersions.Aggregate.ITEM);
+    }
+
+    /**
+     * 재고 대량 증감 (입고, 재고 조정)
+     *  - 상품을 조회, 변경 감지하지 않고 조건부 UPDATE batch 로 처리
+     *  - 상품별로 독립적으로 반영, 실패한 상품은 사유를 결과로 돌려준다.
+     *  - 같은 상품의 합계가 int 범위를 넘으면 전체 요청을 거절 (IllegalArgumentException)
+     */
+    @Transactional
+    public List<StockAdjustmentResult> adjustStocks(List<StockAdjustmentDto> adjustments) {
+        // 같은 상품은 합산
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockAdjustmentDto adjustment : adjustments) {
+            try {
+                deltas.merge(adjustment.getItemId(), adjustment.getDelta(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("재고 증감 합계가 범위를 넘었습니다. itemId=" + adjustment.getItemId(), e);
+            }
+        }
+
+        Set<Long> unchanged = itemRepository.addStocks(deltas);
+        changeVersions.changed(ChangeVersions.Aggregate.ITEM);
+        Set<Long> existing = unchanged.isEmpty() ? Set.of() : itemRepository.findExistingIds(unchanged);
+
+        return deltas.entrySet().stream()
+                .map(entry -> {
+                    Long itemId = entry.getKey();
+                    // 있는 상품이 반영되지 않았으면 증가는 최대 재고 초과, 감소는 재고 부족
+                    StockAdjustmentResult.Status status = !unchanged.contains(itemId) ? StockAdjustmentResult.Status.APPLIED
+                            : !existing.contains(itemId) ? StockAdjustmentResult.Status.NOT_FOUND
+                            : entry.getValue() > 0 ? StockAdjustmentResult.Status.STOCK_OVERFLOW
+                            : StockAdjustmentResult.Status.NOT_ENOUGH_STOCK;
+                    return new StockAdjustmentResult(itemId, entry.getValue(), status);
+                })
+                .collect(Collectors.toList());
     }
 
     public List<Item> findItems() {
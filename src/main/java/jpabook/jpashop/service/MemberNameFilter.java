@@ -0,0 +1,102 @@
+package jpabook.jpashop.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 블룸 필터 (중복 회원 검증 전 사전 필터)
+ *  - mightContain 이 false 면 그 이름은 확실히 없다 -> DB 조회 생략
+ *  - true 면 있을 수도 있다 -> DB 조회
+ *  - 이름 삭제는 지원하지 않는다. (false positive 만 늘어날 뿐 정합성에는 영향 X)
+ *  - 최종 중복 판단은 언제나 DB 유니크 제약 조건(uk_member_name)
+ */
+@Component
+public class MemberNameFilter {
+
+    private final boolean enabled;
+    private final int numHashFunctions;
+    private final long numBits;
+    private final AtomicLongArray bits;
+
+    public MemberNameFilter(@Value("${jpashop.member.name-filter.enabled:true}") boolean enabled,
+                            @Value("${jpashop.member.name-filter.expected-insertions:100000}") long expectedInsertions,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedInsertions > 0, 0 < falsePositiveRate < 1");
+        }
+        this.enabled = enabled;
+
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, (bitSize + 63) / 64 * 64);
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(enabled ? (int) (numBits / 64) : 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(String name) {
+        if (!enabled || name == null) {
+            return;
+        }
+        long hash = hash(name);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            long index = bitIndex(hash1 + i * hash2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false 면 확실히 없는 이름, 필터를 끈 경우는 항상 true
+     */
+    public boolean mightContain(String name) {
+        if (!enabled || name == null) {
+            return true;
+        }
+        long hash = hash(name);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            long index = bitIndex(hash1 + i * hash2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % numBits;
+    }
+
+    /**
+     * 64 bit FNV-1a + murmur3 fmix64
+     */
+    private static long hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
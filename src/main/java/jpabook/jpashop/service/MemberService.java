@@ -1,13 +1,20 @@
 package jpabook.jpashop.service;
 
+import io.micrometer.core.annotation.Timed;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -15,26 +22,62 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final ChangeVersions changeVersions;
 
     /**
      *  회원 가입
      */
+    @Timed(value = "jpashop.member.join", description = "회원 가입", histogram = true)
     @Transactional  //변경
     public Long join(Member member) {
 
-        validateDuplicateMember(member);    // 중복 회원 검증
+        validateDuplicateMember(member.getName());    // 중복 회원 검증
         memberRepository.save(member);
+        flushName(member.getName());
+        changeVersions.changed(ChangeVersions.Aggregate.MEMBER);
         return member.getId();
     }
 
-    private void validateDuplicateMember(Member member) {
+    /**
+     * 중복 회원 사전 검증
+     *  - 블룸 필터에 없는 이름이면 조회 생략, 있을 수도 있으면 존재 여부만 조회
+     *  - 동시 가입은 여기를 통과할 수 있으므로 최종 판단은 flushName 의 유니크 제약 조건
+     */
+    private void validateDuplicateMember(String name) {
         //EXCEPTION
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()) {
+        if (memberNameFilter.mightContain(name) && memberRepository.existsByName(name)) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
     }
 
+    /**
+     * INSERT, UPDATE 를 즉시 실행해서 uk_member_name 위반을 기존 예외로 변환
+     */
+    private void flushName(String name) {
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameFilter.put(name);
+    }
+
+    /**
+     * 애플리케이션 기동 후 기존 회원 이름으로 블룸 필터 채우기
+     *  - 채우는 동안 가입해도 DB 조회, 유니크 제약 조건으로 검증되므로 정합성 문제 X
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpNameFilter() {
+        if (!memberNameFilter.isEnabled()) {
+            return;
+        }
+        try (Stream<String> names = memberRepository.streamAllNames()) {
+            names.forEach(memberNameFilter::put);
+        }
+    }
+
 
     /**
      * 회원 전체 조회
@@ -52,10 +95,18 @@ public class MemberService {
 
     /**
      * 회원 수정
+     *  - 주문 요약의 회원 이름도 같은 트랜잭션에서 변경
      */
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
+        if (Objects.equals(member.getName(), name)) {
+            return;
+        }
+        validateDuplicateMember(name);
         member.setName(name);
+        flushName(name);
+        orderSummaryRepository.updateMemberName(id, name);
+        changeVersions.changed(ChangeVersions.Aggregate.MEMBER);
     }
 }
\ No newline at end of file
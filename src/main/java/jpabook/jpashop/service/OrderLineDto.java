@@ -0,0 +1,15 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 주문 상품 한 줄 (장바구니)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLineDto {
+
+    private Long itemId;
+    private int count;
+}
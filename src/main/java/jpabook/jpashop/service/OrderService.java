@@ -1,15 +1,22 @@
 package jpabook.jpashop.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jpabook.jpashop.domain.*;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -19,48 +26,113 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final MeterRegistry meterRegistry;
+    private final ChangeVersions changeVersions;
 
     /**
      * 주문
      */
+    @Timed(value = "jpashop.order.place", description = "주문", histogram = true)
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
+        return order(memberId, List.of(new OrderLineDto(itemId, count)));
+    }
+
+    /**
+     * 주문 (장바구니, 여러 상품을 주문 하나로)
+     *  - 상품은 IN 쿼리 1번으로 조회
+     *  - 재고 차감은 JDBC batch 1번, 주문상품 insert 는 hibernate.jdbc.batch_size 단위로 묶어서 전송
+     */
+    @Timed(value = "jpashop.order.place", description = "주문", histogram = true)
+    @Transactional
+    public Long order(Long memberId, List<OrderLineDto> orderLines) {
+        if (orderLines.isEmpty()) {
+            throw new IllegalArgumentException("주문 상품이 없습니다.");
+        }
+
+        // 같은 상품은 수량 합산
+        Map<Long, Integer> quantities = orderLines.stream()
+                .collect(Collectors.toMap(OrderLineDto::getItemId, OrderLineDto::getCount, Integer::sum, TreeMap::new));
+
+        // 재고 차감 (조건부 UPDATE 로 확인과 차감을 한 번에, 부족하면 NotEnoughStockException)
+        try {
+            itemRepository.removeStocks(quantities);
+        } catch (NotEnoughStockException e) {
+            meterRegistry.counter("jpashop.stock.not.enough").increment();  // 품절 폭주 감지
+            throw e;
+        }
 
         // 엔티티 조회
         Member member = memberRepository.findOne(memberId);
-        Item item = itemRepository.findOne(itemId);
+        Map<Long, Item> items = itemRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        //주문상품 생성 (재고는 이미 차감됨)
+        OrderItem[] orderItems = quantities.entrySet().stream()
+                .map(entry -> {
+                    Item item = items.get(entry.getKey());
+                    return OrderItem.createReservedOrderItem(item, item.getPrice(), entry.getValue());
+                })
+                .toArray(OrderItem[]::new);
 
         //주문 생성
-        Order order = Order.createOrder(member, delivery, orderItem);
+        Order order = Order.createOrder(member, delivery, orderItems);
 
         //주문 저장
         orderRepository.save(order);
+        orderSummaryRepository.save(OrderSummary.of(order));    // 주문 요약도 같은 트랜잭션에서
+        changeVersions.changed(ChangeVersions.Aggregate.ORDER);
         return order.getId();
     }
 
     /**
      * 주문 취소
+     *  - 주문 행을 잠가서 같은 주문의 동시 취소는 순서대로 (두 번째는 이미 취소된 주문 예외)
+     *  - 재고 복구는 조건부 UPDATE (엔티티 재고를 변경 감지로 덮어쓰면 동시 주문의 차감이 사라진다.)
      */
+    @Timed(value = "jpashop.order.cancel", description = "주문 취소", histogram = true)
     @Transactional
     public void cancelOrder(Long orderId) {
         //주문 엔티티 조회
-        Order order = orderRepository.findOne(orderId);
+        Order order = orderRepository.findOneForUpdate(orderId);
 
         //주문 취소
-        order.cancel();
+        try {
+            order.cancel();
+        } catch (IllegalStateException e) {
+            String reason = order.getStatus() == OrderStatus.CANCEL ? "already-canceled" : "delivered";
+            meterRegistry.counter("jpashop.order.cancel.rejected", "reason", reason).increment();
+            throw e;
+        }
+        itemRepository.addStocks(order.itemQuantities());
+
+        //주문 요약 갱신 (재생성 전 주문이라 요약이 없으면 새로 생성)
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        if (summary == null) {
+            orderSummaryRepository.save(OrderSummary.of(order));
+        } else {
+            summary.changeStatus(order.getStatus());
+        }
+        changeVersions.changed(ChangeVersions.Aggregate.ORDER);
     }
 
     /**
      * 주문 검색
      */
+    @Timed(value = "jpashop.order.search", description = "주문 검색", histogram = true)
     public List<Order> searchOrders(OrderSearch orderSearch) {
         return orderRepository.findAllByString(orderSearch);
     }
+
+    /**
+     * 주문 요약 검색 (order_summary 한 테이블)
+     */
+    public List<OrderSummary> searchOrderSummaries(OrderSearch orderSearch, int offset, int limit) {
+        return orderSummaryRepository.findAll(orderSearch, offset, limit);
+    }
 }
@@ -0,0 +1,67 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 주문 요약(order_summary) 재생성 작업
+ *  - 주문 id 범위를 chunk-size 씩 나눠서 범위마다 트랜잭션 하나로 delete + insert ... select
+ *  - 처음 도입할 때(백필), 요약이 어긋났을 때 사용
+ *  - rebuild-on-startup 이면 애플리케이션 기동 후 한 번 실행
+ */
+@Slf4j
+@Component
+public class OrderSummaryRebuilder {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersions changeVersions;
+
+    @Value("${jpashop.order-summary.rebuild-chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${jpashop.order-summary.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public OrderSummaryRebuilder(OrderSummaryRepository orderSummaryRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ChangeVersions changeVersions) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.changeVersions = changeVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return 생성된 요약 수
+     */
+    public long rebuild() {
+        Long maxOrderId = transactionTemplate.execute(status -> orderSummaryRepository.findMaxOrderId());
+        if (maxOrderId == null) {
+            return 0;
+        }
+
+        long rebuilt = 0;
+        for (long fromId = 0; fromId < maxOrderId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(fromId + chunkSize, maxOrderId);
+            Integer count = transactionTemplate.execute(status -> orderSummaryRepository.rebuild(from, to));
+            rebuilt += count == null ? 0 : count;
+        }
+        changeVersions.changed(ChangeVersions.Aggregate.ORDER);
+        log.info("order_summary 재생성 완료 : {} 건 (max order_id = {})", rebuilt, maxOrderId);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 재고 증감 한 줄 (입고는 양수, 차감은 음수)
+ */
+@Getter
+@AllArgsConstructor
+public class StockAdjustmentDto {
+
+    private Long itemId;
+    private int delta;
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 상품별 재고 증감 결과
+ */
+@Getter
+@AllArgsConstructor
+public class StockAdjustmentResult {
+
+    private Long itemId;
+    private int delta;      // 같은 상품이 여러 줄이면 합산한 값
+    private Status status;
+
+    public enum Status {
+        APPLIED,            // 반영
+        NOT_FOUND,          // 없는 상품
+        NOT_ENOUGH_STOCK,   // 재고가 음수가 되므로 반영 X
+        STOCK_OVERFLOW      // 재고가 int 최대값을 넘으므로 반영 X
+    }
+}
@@ -0,0 +1,136 @@
+package jpabook.jpashop.shard;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 회원 id -> 샤드 (consistent hashing)
+ *  - 샤드마다 virtualNodes 개의 점을 링(long 범위)에 배치, 키 해시 이상인 첫 점의 샤드가 담당
+ *  - 샤드를 추가 / 제거하면 링의 일부 구간만 다른 샤드로 옮겨진다. (대략 1 / 샤드 수)
+ *  - 불변 객체, 변경은 withShard / withoutShard 로 새 링 생성
+ */
+public class ConsistentHashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Getter
+    private final Set<String> shards;
+    @Getter
+    private final int virtualNodes;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("샤드가 하나 이상 있어야 합니다.");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes 는 1 이상이어야 합니다. virtualNodes=" + virtualNodes);
+        }
+        this.shards = Collections.unmodifiableSet(new TreeSet<>(shards));
+        this.virtualNodes = virtualNodes;
+        for (String shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public String shardFor(long key) {
+        return ownerOf(hash(key));
+    }
+
+    public ConsistentHashRing withShard(String shard) {
+        Set<String> changed = new TreeSet<>(shards);
+        changed.add(shard);
+        return new ConsistentHashRing(changed, virtualNodes);
+    }
+
+    public ConsistentHashRing withoutShard(String shard) {
+        Set<String> changed = new TreeSet<>(shards);
+        changed.remove(shard);
+        return new ConsistentHashRing(changed, virtualNodes);
+    }
+
+    /**
+     * 이 링에서 target 링으로 바꿀 때 담당 샤드가 바뀌는 해시 구간 (인접 구간은 합침)
+     */
+    public List<Move> rebalanceTo(ConsistentHashRing target) {
+        TreeSet<Long> points = new TreeSet<>(ring.keySet());
+        points.addAll(target.ring.keySet());
+        points.add(Long.MAX_VALUE);
+
+        List<Move> moves = new ArrayList<>();
+        long from = Long.MIN_VALUE;
+        for (long to : points) {
+            String source = ownerOf(to);
+            String destination = target.ownerOf(to);
+            if (!source.equals(destination)) {
+                Move last = moves.isEmpty() ? null : moves.get(moves.size() - 1);
+                if (last != null && last.toHash + 1 == from && last.source.equals(source) && last.target.equals(destination)) {
+                    moves.set(moves.size() - 1, new Move(last.fromHash, to, source, destination));
+                } else {
+                    moves.add(new Move(from, to, source, destination));
+                }
+            }
+            if (to == Long.MAX_VALUE) {
+                break;
+            }
+            from = to + 1;
+        }
+        return moves;
+    }
+
+    private String ownerOf(long hash) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash);
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 키 해시 (MurmurHash3 fmix64, 연속된 id 도 링 전체에 고르게)
+     */
+    public static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static long hash(String node) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : node.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= FNV_PRIME;
+        }
+        return hash(hash);
+    }
+
+    /**
+     * 해시 구간 [fromHash, toHash] 의 키를 source 샤드에서 target 샤드로
+     */
+    @Getter
+    @ToString
+    public static class Move {
+        private final long fromHash;
+        private final long toHash;
+        private final String source;
+        private final String target;
+
+        Move(long fromHash, long toHash, String source, String target) {
+            this.fromHash = fromHash;
+            this.toHash = toHash;
+            this.source = source;
+            this.target = target;
+        }
+
+        public boolean contains(long key) {
+            long hash = hash(key);
+            return fromHash <= hash && hash <= toHash;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 사용할 샤드
+ *  - 트랜잭션 시작 전에 정해야 한다. (트랜잭션 안에서는 커넥션이 이미 정해져 있다.)
+ *      - 트랜잭션이나 open-in-view 세션(EntityManager)이 스레드에 있으면 다른 샤드로 바꿀 수 없다. -> 예외
+ *      - 새 트랜잭션(REQUIRES_NEW)도 open-in-view 세션의 커넥션을 그대로 쓰므로 소용없다.
+ *  - 정하지 않으면 기본 샤드
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callOn(String shard, Supplier<T> work) {
+        String previous = CURRENT.get();
+        if (!Objects.equals(previous, shard) && boundToConnection()) {
+            throw new IllegalStateException("샤드는 트랜잭션 / open-in-view 세션 밖에서 정해야 합니다: " + shard);
+        }
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private static boolean boundToConnection() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.getResourceMap().isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package jpabook.jpashop.shard;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * scatter-gather 조회
+ *  - 모든 샤드에 같은 조회를 동시에 실행 (샤드마다 별도 스레드, 새 읽기 전용 트랜잭션 하나)
+ *      - 호출한 스레드의 트랜잭션 / open-in-view 세션과 무관하게 샤드를 고를 수 있다.
+ *  - 샤드별 결과는 각각 정렬되어 있어야 한다. -> k-way merge 로 전체 순서, limit 개만
+ *
+ * 예) 주문 목록 최신순 limit 100 : 샤드마다 order by o.id desc limit 100 -> 합쳐서 상위 100 개
+ */
+public class ShardQueryExecutor implements AutoCloseable {
+
+    private final List<String> shards;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+
+    public ShardQueryExecutor(Collection<String> shards, PlatformTransactionManager transactionManager) {
+        this.shards = List.copyOf(shards);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = Executors.newFixedThreadPool(this.shards.size());   // 샤드마다 스레드 하나
+    }
+
+    public <T> List<T> scatterGather(Function<String, List<T>> query, Comparator<? super T> order, int limit) {
+        List<CompletableFuture<List<T>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(
+                        () -> ShardContext.callOn(shard, () -> readOnlyTx.execute(status -> query.apply(shard))), executor))
+                .collect(Collectors.toList());
+        try {
+            List<List<T>> results = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            return merge(results, order, limit);
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 정렬된 목록 k 개 합치기 (힙 크기 k, O(limit log k))
+     */
+    public static <T> List<T> merge(List<? extends List<T>> sortedLists, Comparator<? super T> order, int limit) {
+        PriorityQueue<Cursor<T>> heap = new PriorityQueue<>((a, b) -> order.compare(a.current(), b.current()));
+        for (List<T> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heap.add(new Cursor<>(list));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(limit, sortedLists.stream().mapToInt(List::size).sum()));
+        while (!heap.isEmpty() && merged.size() < limit) {
+            Cursor<T> cursor = heap.poll();
+            merged.add(cursor.current());
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor<T> {
+
+        private final List<T> list;
+        private int index;
+
+        Cursor(List<T> list) {
+            this.list = list;
+        }
+
+        T current() {
+            return list.get(index);
+        }
+
+        boolean advance() {
+            return ++index < list.size();
+        }
+    }
+}
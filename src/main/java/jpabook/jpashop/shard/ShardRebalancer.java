@@ -0,0 +1,69 @@
+package jpabook.jpashop.shard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 샤드 추가 / 제거 시 옮길 회원 목록 (dry run)
+ *  - 현재 링과 목표 링의 차이(ConsistentHashRing.rebalanceTo)에서 source 샤드에 주문이 있는 회원만
+ *  - source 샤드마다 주문 회원 id 를 한 번만 조회하고, 그 샤드의 이동 구간(fromHash 순)에서 찾는다.
+ *  - 실제 이동(주문, 주문상품, 배송 복사 후 삭제)은 아직 X -> 회원별로 쓰기를 막고 옮긴 뒤 링을 바꿔야 한다.
+ *  - 트랜잭션 / open-in-view 세션 밖에서 호출해야 한다. (ShardContext, 아니면 예외)
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private final ConsistentHashRing current;
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+
+    public ShardRebalancer(ConsistentHashRing current, EntityManager em, PlatformTransactionManager transactionManager) {
+        this.current = current;
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<MemberMove> plan(ConsistentHashRing target) {
+        Map<String, NavigableMap<Long, ConsistentHashRing.Move>> movesBySource = new TreeMap<>();
+        for (ConsistentHashRing.Move move : current.rebalanceTo(target)) {
+            movesBySource.computeIfAbsent(move.getSource(), source -> new TreeMap<>()).put(move.getFromHash(), move);
+        }
+
+        List<MemberMove> memberMoves = new ArrayList<>();
+        for (Map.Entry<String, NavigableMap<Long, ConsistentHashRing.Move>> entry : movesBySource.entrySet()) {
+            String source = entry.getKey();
+            NavigableMap<Long, ConsistentHashRing.Move> moves = entry.getValue();
+            List<Long> memberIds = ShardContext.callOn(source, () -> readOnlyTx.execute(status ->
+                    em.createQuery("select distinct o.member.id from Order o", Long.class).getResultList()));
+            for (Long memberId : memberIds) {
+                Map.Entry<Long, ConsistentHashRing.Move> candidate = moves.floorEntry(ConsistentHashRing.hash(memberId));
+                if (candidate != null && candidate.getValue().contains(memberId)) {
+                    memberMoves.add(new MemberMove(memberId, source, candidate.getValue().getTarget()));
+                }
+            }
+        }
+        log.info("샤드 재배치 계획 : 회원 {} 명 이동 ({} -> {})", memberMoves.size(), current.getShards(), target.getShards());
+        return memberMoves;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class MemberMove {
+        private Long memberId;
+        private String source;
+        private String target;
+    }
+}
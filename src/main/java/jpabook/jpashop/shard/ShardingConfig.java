@@ -0,0 +1,79 @@
+package jpabook.jpashop.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 기준 샤딩 기반 (jpashop.sharding.enabled: true 일 때만, 읽기 / 쓰기 분리와 같이 쓸 수 없다.)
+ *  - shard-0 : spring.datasource.* (기본 샤드, ShardContext 가 없으면 여기)
+ *  - shard-1 ~ : jpashop.sharding.shards[n].* (HikariCP 설정 이름 그대로)
+ *
+ * 제공하는 것 : 샤드 라우팅(ShardContext), 일관된 해시 링, scatter-gather 조회, 재배치 계획(dry run)
+ * 아직 X : OrderService, OrderRepository, OrderQueryRepository 는 샤드를 고르지 않는다. (모두 기본 샤드)
+ *  - 회원 id 를 샤드의 시퀀스로 만들기 때문에 저장 전에는 링으로 샤드를 정할 수 없다. -> 전역 id 발급이 먼저
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    public static final String DEFAULT_SHARD = "shard-0";
+
+    @Value("${jpashop.sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+
+        HikariDataSource defaultShard = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(defaultShard));
+        defaultShard.setPoolName(DEFAULT_SHARD);
+        shards.put(DEFAULT_SHARD, defaultShard);
+
+        for (int i = 0; binder.bind("jpashop.sharding.shards[" + i + "].jdbc-url", String.class).isBound(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            binder.bind("jpashop.sharding.shards[" + i + "]", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + (i + 1));
+            shards.put(shard.getPoolName(), shard);
+        }
+        return new ShardRoutingDataSource(shards, DEFAULT_SHARD);
+    }
+
+    @Bean
+    public ConsistentHashRing shardRing(Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<String> shards = new ArrayList<>();
+        shards.add(DEFAULT_SHARD);
+        for (int i = 0; binder.bind("jpashop.sharding.shards[" + i + "].jdbc-url", String.class).isBound(); i++) {
+            shards.add("shard-" + (i + 1));
+        }
+        return new ConsistentHashRing(shards, virtualNodes);
+    }
+
+    @Bean
+    public ShardQueryExecutor shardQueryExecutor(ConsistentHashRing shardRing, PlatformTransactionManager transactionManager) {
+        return new ShardQueryExecutor(shardRing.getShards(), transactionManager);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ConsistentHashRing shardRing, EntityManager em,
+                                           PlatformTransactionManager transactionManager) {
+        return new ShardRebalancer(shardRing, em, transactionManager);
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void CBOR_응답() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v4/simple-orders").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode json = readJson("/api/v4/simple-orders");
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(body).toString()).isEqualTo(json.toString()).as("JSON 과 같은 내용");
+        assertThat(body.length).isLessThan(json.toString().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void Smile_응답() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v4/simple-orders").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(body).toString()).isEqualTo(readJson("/api/v4/simple-orders").toString());
+    }
+
+    private JsonNode readJson(String url) throws Exception {
+        byte[] body = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        return new ObjectMapper().readTree(body);
+    }
+}
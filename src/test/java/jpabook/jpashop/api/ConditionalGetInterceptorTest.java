@@ -0,0 +1,91 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberService memberService;
+
+    @Test
+    void 변경이_없으면_304() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/api/v2/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        //then
+        mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void 회원_가입후_새_ETag() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/api/v2/members"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        Member member = new Member();
+        member.setName("ETag회원-" + System.nanoTime());
+        member.setAddress(new Address("서울", "증산로", "123-123"));
+        memberService.join(member);
+
+        //then
+        String changed = mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void 응답_형식마다_다른_ETag() throws Exception {
+        //given
+        String jsonEtag = mockMvc.perform(get("/api/v2/members").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //then : JSON 의 ETag 로 CBOR 를 재검증하면 새 본문
+        String cborEtag = mockMvc.perform(get("/api/v2/members").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborEtag).isNotEqualTo(jsonEtag);
+
+        mockMvc.perform(get("/api/v2/members").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void Accept_로_응답_형식_결정() throws Exception {
+        assertThat(ConditionalGetInterceptor.format(null)).isEqualTo("json");
+        assertThat(ConditionalGetInterceptor.format("*/*")).isEqualTo("json");
+        assertThat(ConditionalGetInterceptor.format("application/cbor")).isEqualTo("cbor");
+        assertThat(ConditionalGetInterceptor.format("application/json;q=0.5, application/x-jackson-smile")).isEqualTo("smile");
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void 커서_페이징_잘못된_limit_은_400() throws Exception {
+        for (String url : new String[]{"/api/v3.2/orders", "/api/v6.1/orders"}) {
+            mockMvc.perform(get(url).param("limit", "0")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "-1")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "1001")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("limit", "1")).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void 잘못된_커서는_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void 주문상품_없는_주문도_다음_커서로_넘어간다() throws Exception {
+        //given : 주문상품 없는 주문 다음에 주문상품 있는 주문
+        Member member = new Member();
+        member.setName("커서회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("커서 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Order empty = Order.createOrder(member, newDelivery(member));
+        em.persist(empty);
+        Order order = Order.createOrder(member, newDelivery(member), OrderItem.createOrderItem(book, book.getPrice(), 1));
+        em.persist(order);
+        em.flush();
+
+        //when then : 주문상품이 없어서 data 는 비어도 next 는 그 주문
+        mockMvc.perform(get("/api/v6.1/orders").param("after", String.valueOf(empty.getId() - 1)).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").isEmpty())
+                .andExpect(jsonPath("$.next").value(String.valueOf(empty.getId())));
+        mockMvc.perform(get("/api/v6.1/orders").param("after", String.valueOf(empty.getId())).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].orderId").value(order.getId()))
+                .andExpect(jsonPath("$.next").value(String.valueOf(order.getId())));
+    }
+
+    private Delivery newDelivery(Member member) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        return delivery;
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderSimpleApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void 주문_요약_잘못된_offset_limit_은_400() throws Exception {
+        assertPageParamsValidated("/api/v5/simple-orders");
+    }
+
+    @Test
+    void 총_금액_순_잘못된_offset_limit_은_400() throws Exception {
+        assertPageParamsValidated("/api/v4.1/simple-orders");
+    }
+
+    private void assertPageParamsValidated(String url) throws Exception {
+        mockMvc.perform(get(url).param("offset", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(url).param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(url).param("limit", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(url).param("limit", "1001")).andExpect(status().isBadRequest());
+        mockMvc.perform(get(url).param("offset", "0").param("limit", "1")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,243 @@
+package jpabook.jpashop.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * H2 메모리 DB 두 개를 주 DB, 복제본으로 사용 (실제 복제는 없고 어느 DB 에서 읽었는지만 확인)
+ */
+class ReplicationRoutingDataSourceTest {
+
+    DataSource primary;
+    JdbcTemplate primaryJdbc;
+    JdbcTemplate replicaJdbc;
+    SwitchableDataSource replica;
+    ReplicaLagMonitor lagMonitor;
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate writeTx;
+    TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing_primary");
+        replica = new SwitchableDataSource(h2("routing_replica"));
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate jdbc : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            jdbc.execute("create table node (name varchar(20))");
+        }
+        primaryJdbc.update("insert into node values ('primary')");
+        replicaJdbc.update("insert into node values ('replica')");
+        replicaJdbc.execute("create table replication_lag (seconds double)");
+        replicaJdbc.update("insert into replication_lag values (0)");
+
+        // 스케줄 없이 refresh() 로 직접 확인
+        lagMonitor = new ReplicaLagMonitor(replica, "select seconds from replication_lag",
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+        lagMonitor.refresh();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicationRoutingDataSource(primary, replica, lagMonitor, Duration.ofMinutes(1)));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.down = false;
+        primaryJdbc.execute("drop all objects");
+        replicaJdbc.execute("drop all objects");
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void 읽기전용_트랜잭션은_복제본() throws Exception {
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica");
+        assertThat(writeTx.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(currentNode()).isEqualTo("primary").as("트랜잭션 밖은 주 DB");
+    }
+
+    @Test
+    void 복제_지연시_주DB() throws Exception {
+        //given
+        replicaJdbc.update("update replication_lag set seconds = 5");
+        lagMonitor.refresh();
+
+        //then
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("primary");
+
+        replicaJdbc.update("update replication_lag set seconds = 0.5");
+        lagMonitor.refresh();
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica").as("지연이 줄면 다시 복제본");
+    }
+
+    @Test
+    void 같은_요청에서_쓰기_후_읽기는_주DB() throws Exception {
+        //given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica");
+
+        //when
+        writeTx.execute(status -> jdbcTemplate.update("insert into node values ('written')"));
+
+        //then
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("primary");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica").as("다른 요청은 복제본");
+    }
+
+    @Test
+    void 조회만_한_쓰기_트랜잭션_후에는_복제본() throws Exception {
+        //given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        //when
+        assertThat(writeTx.execute(status -> currentNode())).isEqualTo("primary");
+
+        //then
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica");
+    }
+
+    @Test
+    void 쓰기_후_읽기_기간은_커밋부터() throws Exception {
+        //given : window 보다 오래 걸리는 쓰기 트랜잭션
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicationRoutingDataSource(primary, replica, lagMonitor, Duration.ofMillis(500)));
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate longWriteTx = new TransactionTemplate(transactionManager);
+        TransactionTemplate readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        //when
+        longWriteTx.executeWithoutResult(status -> {
+            jdbc.update("insert into node values ('written')");
+            sleep(Duration.ofMillis(700));
+        });
+
+        //then
+        assertThat(readTx.execute(status -> jdbc.queryForObject("select min(name) from node", String.class)))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void 복제본_장애시_주DB() throws Exception {
+        //given
+        replica.down = true;
+
+        //when
+        lagMonitor.refresh();
+
+        //then
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("primary");
+
+        replica.down = false;
+        lagMonitor.refresh();
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica").as("복구되면 다시 복제본");
+    }
+
+    @Test
+    void 복제본_커넥션_실패시_주DB_커넥션으로_대신() throws Exception {
+        //given : 마지막 확인은 정상, 그 뒤에 장애
+        assertThat(lagMonitor.isReplicaUsable()).isTrue();
+        replica.down = true;
+
+        //then : 요청은 실패하지 않고 주 DB 에서 읽고, 다음 확인까지 복제본을 쓰지 않는다.
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(replica.attempts).isEqualTo(1);
+
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(replica.attempts).isEqualTo(1).as("사용 불가 표시 후에는 복제본에 연결하지 않는다.");
+    }
+
+    @Test
+    void 주기적_확인() throws Exception {
+        //given
+        ReplicaLagMonitor scheduled = new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1), Duration.ofMillis(50));
+        try {
+            assertThat(scheduled.isReplicaUsable()).isFalse().as("첫 확인 전에는 사용 불가");
+
+            //when
+            scheduled.start();
+
+            //then
+            awaitUsable(scheduled, true);
+            replica.down = true;
+            awaitUsable(scheduled, false);
+        } finally {
+            scheduled.close();
+        }
+    }
+
+    private static void awaitUsable(ReplicaLagMonitor monitor, boolean expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (monitor.isReplicaUsable() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(monitor.isReplicaUsable()).isEqualTo(expected);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select min(name) from node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /**
+     * down 이면 커넥션 획득 실패 (복제본 장애)
+     */
+    static class SwitchableDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+        int attempts;
+
+        SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                attempts++;
+                throw new SQLException("replica down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderTest {
+
+    @Test
+    void 주문_총액_저장() throws Exception {
+        //given
+        Book book1 = createBook(10000);
+        Book book2 = createBook(25000);
+
+        //when
+        Order order = Order.createOrder(new Member(), new Delivery(),
+                OrderItem.createReservedOrderItem(book1, book1.getPrice(), 3),
+                OrderItem.createReservedOrderItem(book2, book2.getPrice(), 2));
+
+        //then
+        assertThat(order.getTotalPrice()).isEqualTo(10000 * 3 + 25000 * 2);
+        assertThat(order.getTotalPrice()).isEqualTo(order.calculateTotalPrice()).as("저장된 총액 = 주문상품 합계");
+    }
+
+    @Test
+    void 주문_총액_int_범위_초과() throws Exception {
+        //given
+        Book book = createBook(Integer.MAX_VALUE);
+
+        //when
+        Order order = Order.createOrder(new Member(), new Delivery(),
+                OrderItem.createReservedOrderItem(book, book.getPrice(), 3),
+                OrderItem.createReservedOrderItem(book, book.getPrice(), 1000));
+
+        //then
+        assertThat(order.getTotalPrice()).isEqualTo((long) Integer.MAX_VALUE * 1003).as("long 으로 계산해서 overflow X");
+        assertThat(order.getTotalPrice()).isEqualTo(order.calculateTotalPrice());
+    }
+
+    @Test
+    void 이미_취소된_주문_재취소_불가() throws Exception {
+        //given
+        Book book = createBook(10000);
+        Order order = Order.createOrder(new Member(), new Delivery(),
+                OrderItem.createReservedOrderItem(book, book.getPrice(), 2));
+        order.cancel();
+
+        //then
+        assertThatIllegalStateException().isThrownBy(order::cancel).as("재고가 두 번 복구되지 않도록");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCEL);
+    }
+
+    private Book createBook(int price) {
+        Book book = new Book();
+        book.setPrice(price);
+        return book;
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.monitoring;
+
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class HibernateStatisticsEndpointTest {
+
+    @Autowired
+    HibernateStatisticsEndpoint endpoint;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    boolean statisticsEnabled;
+
+    @BeforeEach
+    void enableStatistics() {
+        // SessionFactory 는 다른 테스트와 공유하므로 끝나면 원래 설정으로
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void restoreStatistics() {
+        emf.unwrap(SessionFactory.class).getStatistics().setStatisticsEnabled(statisticsEnabled);
+    }
+
+    @Test
+    void 쿼리별_통계와_초기화() throws Exception {
+        //given
+        endpoint.reset();
+        OrderSearch orderSearch = new OrderSearch();
+        orderRepository.findAllByString(orderSearch);
+        orderRepository.findAllByString(orderSearch);
+
+        //when
+        HibernateStatisticsEndpoint.HibernateStatisticsReport report = endpoint.statistics(null);
+
+        //then
+        assertThat(report.isEnabled()).isTrue();
+        assertThat(report.getQueries())
+                .filteredOn(query -> query.getQuery().equals("select o from Order o join o.member m"))
+                .singleElement()
+                .satisfies(query -> assertThat(query.getExecutions()).isEqualTo(2));
+        assertThat(report.getPlanCache().getHits() + report.getPlanCache().getMisses()).isPositive();
+
+        endpoint.reset();
+        assertThat(endpoint.statistics(null).getQueries()).as("새 측정 구간").isEmpty();
+    }
+}
@@ -0,0 +1,75 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시 메트릭, 무효화 (트랜잭션마다 커밋해서 캐시를 거치게 한다.)
+ */
+@SpringBootTest
+class SecondLevelCacheMetricsTest {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void 상품_캐시_적중_메트릭과_재고_변경후_무효화() throws Exception {
+        //given
+        Long itemId = transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName("캐시 JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+        try {
+            FunctionCounter hits = meterRegistry.find("hibernate.second.level.cache.requests")
+                    .tags("region", "item", "result", "hit")
+                    .functionCounter();
+            assertThat(hits).as("hibernate-micrometer 메트릭").isNotNull();
+            double hitsBefore = hits.count();
+
+            //when : 캐시에서 조회
+            transactionTemplate.executeWithoutResult(status -> em.find(Item.class, itemId));
+
+            //then
+            assertThat(hits.count()).isGreaterThan(hitsBefore);
+
+            //when : JDBC 로 재고 변경
+            transactionTemplate.executeWithoutResult(status -> itemRepository.addStocks(Map.of(itemId, 5)));
+
+            //then : 이전 재고가 캐시에 남지 않는다.
+            assertThat(emf.getCache().contains(Item.class, itemId)).isFalse();
+            Integer stockQuantity = transactionTemplate.execute(status -> em.find(Item.class, itemId).getStockQuantity());
+            assertThat(stockQuantity).isEqualTo(15);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Item.class, itemId)));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.monitoring;
+
+import jpabook.jpashop.exception.NPlusOneQueryException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "jpashop.sql.n-plus-one.threshold=2")
+@AutoConfigureMockMvc
+class SqlStatementFilterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void SQL_실행수_헤더() throws Exception {
+        // V4 simple-orders : DTO 직접 조회, 쿼리 1번
+        mockMvc.perform(get("/api/v4/simple-orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementFilter.SQL_COUNT_HEADER, "1"))
+                .andExpect(header().exists(SqlStatementFilter.SQL_TIME_HEADER));
+    }
+
+    @Test
+    void N플러스1_감지() throws Exception {
+        // V4 orders : 주문(InitDb 2건)마다 orderItems 조회 -> 같은 SQL 2번
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/v4/orders")))
+                .hasRootCauseInstanceOf(NPlusOneQueryException.class);
+    }
+}
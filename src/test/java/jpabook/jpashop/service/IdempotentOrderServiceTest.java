@@ -0,0 +1,197 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderIdempotency;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 동시 요청은 각 스레드가 따로 커밋해야 하므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.order.idempotency.persist=true")
+@AutoConfigureMockMvc
+class IdempotentOrderServiceTest {
+
+    private static final int RETRIES = 20;
+
+    @Autowired
+    IdempotentOrderService idempotentOrderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    OrderIdempotencyRepository orderIdempotencyRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void 같은_키로_재요청하면_같은_주문() throws Exception {
+        //given
+        Long memberId = memberService.join(createMember());
+        Long itemId = itemService.saveItem(createBook(10));
+        String key = UUID.randomUUID().toString();
+
+        //when
+        Long first = idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, 2)));
+        Long retry = idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, 2)));
+
+        //then
+        assertThat(retry).isEqualTo(first);
+        assertThat(itemService.findOne(itemId).getStockQuantity()).isEqualTo(8).as("재고는 한 번만 차감");
+        assertThatIllegalStateException()
+                .isThrownBy(() -> idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, 3))))
+                .as("같은 키로 다른 주문");
+    }
+
+    @Test
+    void 동시_재시도는_주문_하나로() throws Exception {
+        //given
+        Long memberId = memberService.join(createMember());
+        Long itemId = itemService.saveItem(createBook(100));
+        String key = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(RETRIES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < RETRIES; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, 1)));
+            }));
+        }
+        start.countDown();
+        Set<Long> orderIds = ConcurrentHashMap.newKeySet();
+        for (Future<Long> result : results) {
+            orderIds.add(result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(orderIds).hasSize(1);
+        assertThat(itemService.findOne(itemId).getStockQuantity()).isEqualTo(99);
+        Long orders = em.createQuery("select count(o) from Order o where o.member.id = :memberId", Long.class)
+                .setParameter("memberId", memberId)
+                .getSingleResult();
+        assertThat(orders).isEqualTo(1);
+    }
+
+    @Test
+    void 만료된_DB_기록은_무시하고_새로_주문() throws Exception {
+        //given : 다른 서버가 TTL 보다 오래 전에 같은 키로 다른 주문을 기록
+        Long memberId = memberService.join(createMember());
+        Long itemId = itemService.saveItem(createBook(10));
+        String key = UUID.randomUUID().toString();
+        recordExpired(key);
+
+        //when
+        Long orderId = idempotentOrderService.order(key, memberId, List.of(new OrderLineDto(itemId, 1)));
+
+        //then
+        assertThat(orderId).isNotEqualTo(-1L);
+        assertThat(itemService.findOne(itemId).getStockQuantity()).isEqualTo(9);
+        OrderIdempotency recorded = transactionTemplate.execute(status -> orderIdempotencyRepository.findOne(key));
+        assertThat(recorded.getOrderId()).isEqualTo(orderId).as("새 주문으로 다시 기록");
+    }
+
+    @Test
+    void 만료된_DB_기록_삭제() throws Exception {
+        //given
+        String expired = UUID.randomUUID().toString();
+        recordExpired(expired);
+        String fresh = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status ->
+                orderIdempotencyRepository.save(OrderIdempotency.create(fresh, "fresh", -1L)));
+
+        //when
+        int purged = idempotentOrderService.purgeExpired();
+
+        //then
+        assertThat(purged).isGreaterThanOrEqualTo(1);
+        assertThat(transactionTemplate.execute(status -> orderIdempotencyRepository.findOne(expired))).isNull();
+        assertThat(transactionTemplate.execute(status -> orderIdempotencyRepository.findOne(fresh))).isNotNull();
+    }
+
+    @Test
+    void 잘못된_키는_400_다른_주문에_재사용하면_422() throws Exception {
+        //given
+        Long memberId = memberService.join(createMember());
+        Long itemId = itemService.saveItem(createBook(10));
+        String key = UUID.randomUUID().toString();
+
+        //then
+        mockMvc.perform(post("/order")
+                        .param("memberId", memberId.toString()).param("itemId", itemId.toString()).param("count", "1")
+                        .header("Idempotency-Key", "k".repeat(OrderIdempotency.MAX_KEY_LENGTH + 1)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/order")
+                        .param("memberId", memberId.toString()).param("itemId", itemId.toString()).param("count", "1")
+                        .header("Idempotency-Key", key))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/order")
+                        .param("memberId", memberId.toString()).param("itemId", itemId.toString()).param("count", "2")
+                        .header("Idempotency-Key", key))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * TTL(기본 24h) 보다 오래된 기록
+     */
+    private void recordExpired(String key) {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderIdempotencyRepository.save(OrderIdempotency.create(key, "other", -1L));
+            em.createNativeQuery("update order_idempotency set created_at = ? where idempotency_key = ?")
+                    .setParameter(1, LocalDateTime.now().minusDays(2))
+                    .setParameter(2, key)
+                    .executeUpdate();
+            em.clear();
+        });
+    }
+
+    private Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("중복 주문 방지 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("중복주문회원-" + System.nanoTime());
+        member.setAddress(new Address("서울", "증산로", "123-123"));
+        return member;
+    }
+}
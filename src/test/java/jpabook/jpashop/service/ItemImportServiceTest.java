@@ -0,0 +1,81 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 대량 등록은 chunk 마다 직접 커밋하므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.item-import.chunk-size=2")
+class ItemImportServiceTest {
+
+    @Autowired
+    ItemImportService itemImportService;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void CSV_대량등록() throws Exception {
+        //given
+        String csv = "type,name,price,stockQuantity,author,isbn,artist\n" +
+                "BOOK,\"CSV, 대량등록 JPA\",10000,10,김영한,1234,\n" +
+                "album,CSV 대량등록 앨범,15000,5,,,\"아이유 \"\"IU\"\"\"\n" +
+                "\n" +
+                "BOOK,CSV 대량등록 가격오류,만원,10,,,\n" +
+                "TOY,CSV 대량등록 타입오류,1000,1,,,\n" +
+                "MOVIE,CSV 대량등록 영화,12000,3,,,\n";
+
+        //when
+        ItemImportResult result = itemImportService.importCsv(toStream(csv));
+
+        //then
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemImportResult.RowError::getLine).containsExactly(5L, 6L);
+
+        Book book = (Book) findByName("CSV, 대량등록 JPA");
+        assertThat(book.getAuthor()).isEqualTo("김영한");
+        assertThat(book.getStockQuantity()).isEqualTo(10);
+        assertThat(((Album) findByName("CSV 대량등록 앨범")).getArtist()).isEqualTo("아이유 \"IU\"");
+    }
+
+    @Test
+    void NDJSON_대량등록() throws Exception {
+        //given
+        String ndjson = "{\"type\":\"BOOK\",\"name\":\"NDJSON 대량등록 JPA\",\"price\":10000,\"stockQuantity\":10}\n" +
+                "{\"type\":\"BOOK\",\"name\":\"NDJSON 대량등록 재고오류\",\"price\":10000,\"stockQuantity\":-1}\n" +
+                "{\"type\":\"BOOK\",\"name\":\n";
+
+        //when
+        ItemImportResult result = itemImportService.importNdjson(toStream(ndjson));
+
+        //then
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ItemImportResult.RowError::getLine).containsExactly(2L, 3L);
+        assertThat(findByName("NDJSON 대량등록 JPA").getPrice()).isEqualTo(10000);
+    }
+
+    private Item findByName(String name) {
+        List<Item> items = em.createQuery("select i from Item i where i.name = :name", Item.class)
+                .setParameter("name", name)
+                .getResultList();
+        assertThat(items).hasSize(1);
+        return items.get(0);
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
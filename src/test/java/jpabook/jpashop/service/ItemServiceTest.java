@@ -57,4 +57,72 @@ class ItemServiceTest {
           assertThat(items.size()).isEqualTo(2);
           assertThat(items).contains(album, movie);
        }
-}
\ No newline at end of file
+
+    @Test
+    void 재고_대량_증감() throws Exception {
+        //given
+        Item book1 = createBook("입고 JPA", 10);
+        Item book2 = createBook("재고조정 JPA", 3);
+        itemService.saveItem(book1);
+        itemService.saveItem(book2);
+        Long notExistId = -1L;
+
+        //when
+        List<StockAdjustmentResult> results = itemService.adjustStocks(List.of(
+                new StockAdjustmentDto(book1.getId(), 5),
+                new StockAdjustmentDto(book2.getId(), -4),
+                new StockAdjustmentDto(notExistId, 1),
+                new StockAdjustmentDto(book1.getId(), 2)));
+
+        //then
+        assertThat(results).extracting(StockAdjustmentResult::getItemId, StockAdjustmentResult::getDelta, StockAdjustmentResult::getStatus)
+                .containsExactly(
+                        tuple(notExistId, 1, StockAdjustmentResult.Status.NOT_FOUND),
+                        tuple(book1.getId(), 7, StockAdjustmentResult.Status.APPLIED),
+                        tuple(book2.getId(), -4, StockAdjustmentResult.Status.NOT_ENOUGH_STOCK));
+        assertThat(book1.getStockQuantity()).isEqualTo(17).as("이미 조회된 상품은 DB 값으로 갱신");
+        assertThat(book2.getStockQuantity()).isEqualTo(3).as("재고가 음수가 되면 반영 X");
+    }
+
+    @Test
+    void 재고_증감_합계_overflow_는_거절() throws Exception {
+        //given
+        Item book = createBook("overflow JPA", 10);
+        itemService.saveItem(book);
+
+        //then
+        assertThatIllegalArgumentException().isThrownBy(() -> itemService.adjustStocks(List.of(
+                new StockAdjustmentDto(book.getId(), Integer.MAX_VALUE),
+                new StockAdjustmentDto(book.getId(), 1))));
+        assertThat(book.getStockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void 최대_재고를_넘는_증가는_상품별로_거절() throws Exception {
+        //given
+        Item full = createBook("가득 찬 JPA", Integer.MAX_VALUE - 1);
+        Item book = createBook("입고 JPA", 10);
+        itemService.saveItem(full);
+        itemService.saveItem(book);
+
+        //when
+        List<StockAdjustmentResult> results = itemService.adjustStocks(List.of(
+                new StockAdjustmentDto(full.getId(), 2),
+                new StockAdjustmentDto(book.getId(), 5)));
+
+        //then : 같은 batch 의 다른 상품은 반영
+        assertThat(results).extracting(StockAdjustmentResult::getItemId, StockAdjustmentResult::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(full.getId(), StockAdjustmentResult.Status.STOCK_OVERFLOW),
+                        tuple(book.getId(), StockAdjustmentResult.Status.APPLIED));
+        assertThat(full.getStockQuantity()).isEqualTo(Integer.MAX_VALUE - 1);
+        assertThat(book.getStockQuantity()).isEqualTo(15);
+    }
+
+    private Item createBook(String name, int stockQuantity) {
+        Item book = new Book();
+        book.setName(name);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+}
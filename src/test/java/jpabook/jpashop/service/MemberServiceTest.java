@@ -1,6 +1,8 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.repository.MemberRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,9 @@ class MemberServiceTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    OrderService orderService;
+
     @Autowired
     EntityManager em;
 
@@ -61,4 +66,45 @@ class MemberServiceTest {
          //then
          assertThrows(IllegalStateException.class, () -> memberService.join(member2));
       }
-}
\ No newline at end of file
+
+      @Test
+      void 중복_회원_예외_유니크_제약조건() throws Exception {
+          //given : 서비스를 거치지 않고 저장 -> 블룸 필터에는 없는 이름
+          Member member1 = new Member();
+          member1.setName("park");
+          em.persist(member1);
+          em.flush();
+
+          Member member2 = new Member();
+          member2.setName("park");
+
+          //then : 사전 조회를 건너뛰어도 DB 유니크 제약 조건으로 걸러진다.
+          assertThrows(IllegalStateException.class, () -> memberService.join(member2));
+      }
+
+    @Test
+    void 회원_이름_변경시_주문_요약도_변경() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("choi");
+        memberService.join(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 2);
+
+        //when
+        memberService.update(member.getId(), "jung");
+
+        //then
+        em.flush();
+        em.clear();
+        assertThat(em.find(OrderSummary.class, orderId1).getMemberName()).isEqualTo("jung");
+        assertThat(em.find(OrderSummary.class, orderId2).getMemberName()).isEqualTo("jung");
+    }
+}
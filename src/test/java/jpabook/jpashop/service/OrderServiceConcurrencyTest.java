@@ -0,0 +1,93 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 트랜잭션을 각 스레드가 따로 커밋해야 하므로 @Transactional 을 붙이지 않는다.
+ */
+@SpringBootTest
+class OrderServiceConcurrencyTest {
+
+    private static final int BUYERS = 100;
+    private static final int STOCK = 64;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    void 동시주문_초과판매_없음() throws Exception {
+        //given
+        Long itemId = itemService.saveItem(createBook("동시성 JPA", 10000, STOCK));
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            memberIds.add(memberService.join(createMember("동시주문회원" + i + "-" + System.nanoTime())));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch ready = new CountDownLatch(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger ordered = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+
+        //when
+        for (Long memberId : memberIds) {
+            results.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                try {
+                    orderService.order(memberId, itemId, 1);
+                    ordered.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);   // 재고 부족 외의 예외는 테스트 실패
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(ordered.get()).isEqualTo(STOCK).as("재고 수량만큼만 주문 성공");
+        assertThat(soldOut.get()).isEqualTo(BUYERS - STOCK).as("나머지는 재고 부족");
+        assertThat(itemService.findOne(itemId).getStockQuantity()).isZero().as("재고는 음수가 될 수 없다");
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "증산로", "123-123"));
+        return member;
+    }
+}
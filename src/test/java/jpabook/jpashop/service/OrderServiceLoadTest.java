@@ -0,0 +1,305 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import java.io.File;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 주문, 주문 취소 부하 테스트 (./gradlew loadTest, 일반 test 에서는 제외)
+ *  - 수백 개의 스레드가 인기 상품 몇 개에 주문과 취소를 섞어서 요청
+ *      - 취소는 최근 주문 중 임의로 골라서 -> 같은 주문을 동시에 두 번 취소하는 경우도 생긴다.
+ *  - 처리량, 지연 시간 백분위를 JSON 보고서로 남긴다. (build/reports/load-test/order-load-test.json)
+ *  - 끝나고 불변식 확인
+ *      - 상품별 재고 + 판매 수량(취소되지 않은 주문) = 초기 재고 (초과 판매, 재고 중복 복구 X)
+ *      - 재고, 주문 수량은 음수 X
+ *      - 취소 성공 수 = CANCEL 상태 주문 수
+ *
+ * 설정 : -Pjpashop.load.threads, operations-per-thread, hot-items, initial-stock, cancel-ratio
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info"
+})
+class OrderServiceLoadTest {
+
+    private static final int THREADS = Integer.getInteger("jpashop.load.threads", 200);
+    private static final int OPERATIONS_PER_THREAD = Integer.getInteger("jpashop.load.operations-per-thread", 50);
+    private static final int HOT_ITEMS = Integer.getInteger("jpashop.load.hot-items", 3);
+    private static final int INITIAL_STOCK = Integer.getInteger("jpashop.load.initial-stock", 3000);
+    private static final double CANCEL_RATIO = Double.parseDouble(System.getProperty("jpashop.load.cancel-ratio", "0.3"));
+    private static final String REPORT_DIR = System.getProperty("jpashop.load.report-dir", "build/reports/load-test");
+
+    private static final int RECENT_ORDERS = 1024;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void 주문_취소_부하() throws Exception {
+        //given
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < HOT_ITEMS; i++) {
+            itemIds.add(itemService.saveItem(createBook("부하 테스트 JPA" + i, 10000 + i * 1000, INITIAL_STOCK)));
+        }
+        long[] memberIds = new long[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            memberIds[i] = memberService.join(createMember("부하테스트회원" + i + "-" + System.nanoTime()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReferenceArray<Long> recentOrders = new AtomicReferenceArray<>(RECENT_ORDERS);
+        AtomicInteger placedCount = new AtomicInteger();
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < THREADS; t++) {
+            long memberId = memberIds[t];
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return runWorker(memberId, itemIds, recentOrders, placedCount);
+            }));
+        }
+        ready.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+
+        List<WorkerResult> results = new ArrayList<>();
+        for (Future<WorkerResult> future : futures) {
+            results.add(future.get(10, TimeUnit.MINUTES));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        //then
+        WorkerResult total = WorkerResult.merge(results);
+        Map<String, Object> invariants = checkInvariants(itemIds, total);
+        writeReport(total, elapsedNanos, invariants);
+
+        assertThat(total.errors).isEmpty();
+        assertThat(invariants.get("stockConserved")).isEqualTo(true).as("재고 + 판매 수량 = 초기 재고");
+        assertThat(invariants.get("negativeStockItems")).isEqualTo(0L).as("재고는 음수가 될 수 없다");
+        assertThat(invariants.get("nonPositiveOrderItems")).isEqualTo(0L).as("주문 수량은 1 이상");
+        assertThat(invariants.get("canceledOrders")).isEqualTo((long) total.canceled).as("취소 성공 수 = CANCEL 주문 수");
+    }
+
+    private WorkerResult runWorker(long memberId, List<Long> itemIds,
+                                   AtomicReferenceArray<Long> recentOrders, AtomicInteger placedCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        WorkerResult result = new WorkerResult(OPERATIONS_PER_THREAD);
+
+        for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+            Long cancelTarget = random.nextDouble() < CANCEL_RATIO
+                    ? recentOrders.get(random.nextInt(RECENT_ORDERS)) : null;
+            long begin = System.nanoTime();
+            try {
+                if (cancelTarget != null) {
+                    orderService.cancelOrder(cancelTarget);
+                    result.cancelLatencies[result.canceled++] = System.nanoTime() - begin;
+                } else {
+                    Long orderId = orderService.order(memberId, randomOrderLines(itemIds, random));
+                    result.orderLatencies[result.ordered++] = System.nanoTime() - begin;
+                    recentOrders.set(placedCount.getAndIncrement() % RECENT_ORDERS, orderId);
+                }
+            } catch (NotEnoughStockException e) {
+                result.soldOut++;
+            } catch (IllegalStateException e) {
+                result.cancelRejected++;    // 이미 취소된 주문
+            } catch (RuntimeException e) {
+                result.errors.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 인기 상품 1 ~ 2 개, 수량 1 ~ 3
+     */
+    private static List<OrderLineDto> randomOrderLines(List<Long> itemIds, ThreadLocalRandom random) {
+        int lines = Math.min(itemIds.size(), 1 + random.nextInt(2));
+        List<Long> shuffled = new ArrayList<>(itemIds);
+        Collections.shuffle(shuffled, random);
+        List<OrderLineDto> orderLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            orderLines.add(new OrderLineDto(shuffled.get(i), 1 + random.nextInt(3)));
+        }
+        return orderLines;
+    }
+
+    private Map<String, Object> checkInvariants(List<Long> itemIds, WorkerResult total) {
+        Map<Long, Long> sold = new HashMap<>();
+        em.createQuery("select oi.item.id, sum(oi.count) from OrderItem oi" +
+                        " where oi.order.status = :status and oi.item.id in :itemIds" +
+                        " group by oi.item.id", Object[].class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("itemIds", itemIds)
+                .getResultList()
+                .forEach(row -> sold.put((Long) row[0], (Long) row[1]));
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        boolean stockConserved = true;
+        for (Long itemId : itemIds) {
+            int stock = em.createQuery("select i.stockQuantity from Item i where i.id = :id", Integer.class)
+                    .setParameter("id", itemId)
+                    .getSingleResult();
+            long soldQuantity = sold.getOrDefault(itemId, 0L);
+            stockConserved &= stock + soldQuantity == INITIAL_STOCK;
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", itemId);
+            item.put("stock", stock);
+            item.put("sold", soldQuantity);
+            items.add(item);
+        }
+
+        Map<String, Object> invariants = new LinkedHashMap<>();
+        invariants.put("stockConserved", stockConserved);
+        invariants.put("negativeStockItems", em.createQuery(
+                        "select count(i) from Item i where i.stockQuantity < 0", Long.class)
+                .getSingleResult());
+        invariants.put("nonPositiveOrderItems", em.createQuery(
+                        "select count(oi) from OrderItem oi where oi.count <= 0", Long.class)
+                .getSingleResult());
+        invariants.put("canceledOrders", em.createQuery(
+                        "select count(distinct o) from Order o join o.orderItems oi" +
+                                " where o.status = :status and oi.item.id in :itemIds", Long.class)
+                .setParameter("status", OrderStatus.CANCEL)
+                .setParameter("itemIds", itemIds)
+                .getSingleResult());
+        invariants.put("items", items);
+        return invariants;
+    }
+
+    private void writeReport(WorkerResult total, long elapsedNanos, Map<String, Object> invariants) throws Exception {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("threads", THREADS);
+        config.put("operationsPerThread", OPERATIONS_PER_THREAD);
+        config.put("hotItems", HOT_ITEMS);
+        config.put("initialStock", INITIAL_STOCK);
+        config.put("cancelRatio", CANCEL_RATIO);
+
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("ordered", total.ordered);
+        counts.put("canceled", total.canceled);
+        counts.put("soldOut", total.soldOut);
+        counts.put("cancelRejected", total.cancelRejected);
+        counts.put("errors", total.errors.size());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", OffsetDateTime.now().toString());
+        report.put("config", config);
+        report.put("elapsedSeconds", seconds);
+        report.put("throughputPerSecond", (THREADS * OPERATIONS_PER_THREAD) / seconds);
+        report.put("counts", counts);
+        report.put("orderLatencyMillis", percentiles(total.orderLatencies, total.ordered));
+        report.put("cancelLatencyMillis", percentiles(total.cancelLatencies, total.canceled));
+        report.put("invariants", invariants);
+        report.put("sampleErrors", total.errors.subList(0, Math.min(total.errors.size(), 20)));
+
+        File file = new File(REPORT_DIR, "order-load-test.json");
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.info("부하 테스트 보고서 : {}", file.getAbsolutePath());
+    }
+
+    /**
+     * nearest-rank 백분위
+     */
+    private static Map<String, Object> percentiles(long[] latencies, int size) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            int rank = (int) Math.ceil(p / 100 * size);
+            percentiles.put("p" + (p % 1 == 0 ? String.valueOf((int) p) : String.valueOf(p)),
+                    size == 0 ? 0 : sorted[Math.max(rank, 1) - 1] / 1_000_000.0);
+        }
+        percentiles.put("max", size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+        return percentiles;
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "증산로", "123-123"));
+        return member;
+    }
+
+    /**
+     * 스레드별 결과 (스레드 안에서만 쓰므로 동기화 X)
+     */
+    private static class WorkerResult {
+
+        final long[] orderLatencies;
+        final long[] cancelLatencies;
+        int ordered;
+        int canceled;
+        int soldOut;
+        int cancelRejected;
+        final List<String> errors = new ArrayList<>();
+
+        WorkerResult(int capacity) {
+            orderLatencies = new long[capacity];
+            cancelLatencies = new long[capacity];
+        }
+
+        static WorkerResult merge(List<WorkerResult> results) {
+            WorkerResult total = new WorkerResult(results.stream().mapToInt(r -> r.orderLatencies.length).sum());
+            for (WorkerResult result : results) {
+                System.arraycopy(result.orderLatencies, 0, total.orderLatencies, total.ordered, result.ordered);
+                System.arraycopy(result.cancelLatencies, 0, total.cancelLatencies, total.canceled, result.canceled);
+                total.ordered += result.ordered;
+                total.canceled += result.canceled;
+                total.soldOut += result.soldOut;
+                total.cancelRejected += result.cancelRejected;
+                total.errors.addAll(result.errors);
+            }
+            return total;
+        }
+    }
+}
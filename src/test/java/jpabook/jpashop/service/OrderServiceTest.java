@@ -1,5 +1,6 @@
 package jpabook.jpashop.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.exception.NotEnoughStockException;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -27,6 +29,9 @@ class OrderServiceTest {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
 
     @Test
     void 상품주문() throws Exception {
@@ -46,6 +51,7 @@ class OrderServiceTest {
         assertThat(getOrder.getStatus()).isEqualTo(OrderStatus.ORDER).as("상품 주문시 상태는 ORDER");
         assertThat(getOrder.getOrderItems().size()).isEqualTo(1).as("주문한 상품 종류 수가 정확해야 한다");
         assertThat(getOrder.getTotalPrice()).isEqualTo(10000 * orderCount).as("주문 가격은 가격 * 수량이다.");
+        assertThat(getOrder.getTotalPrice()).isEqualTo(getOrder.calculateTotalPrice()).as("저장된 총액 = 주문상품 합계");
         assertThat(book.getStockQuantity()).isEqualTo(8).as("주문 수량만큼 재고가 줄어야 한다.");
     }
 
@@ -55,6 +61,7 @@ class OrderServiceTest {
         //given
         Member member = createMember("회원1", new Address("서울", "증산로", "123-123"));
         Item book = createBook("시골 JPA", 10000, 10);
+        double notEnoughStockBefore = meterRegistry.counter("jpashop.stock.not.enough").count();
 
 
         //when
@@ -72,6 +79,8 @@ class OrderServiceTest {
          */
         org.junit.jupiter.api.Assertions.assertThrows(NotEnoughStockException.class, () -> orderService.order(member.getId(), book.getId(), orderCount));
 
+        assertThat(meterRegistry.counter("jpashop.stock.not.enough").count() - notEnoughStockBefore).isEqualTo(3).as("재고 부족 카운터");
+
 
 
     }
@@ -94,7 +103,57 @@ class OrderServiceTest {
 
         assertThat(getOrder.getStatus()).isEqualTo(OrderStatus.CANCEL).as("주문 취소시 상태는 CANCEL 이다.");
         assertThat(book.getStockQuantity()).isEqualTo(10).as("주문의 취소디ㅗㄴ 상품은 그만큼 재고가 증가해야 한다.");
+        assertThat(em.find(OrderSummary.class, orderId).getStatus()).isEqualTo(OrderStatus.CANCEL).as("주문 요약도 같이 취소");
+
+    }
+
+    @Test
+    void 장바구니_주문() throws Exception {
+        //given
+        Member member = createMember("회원1", new Address("서울", "증산로", "123-123"));
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("토비 스프링", 20000, 5);
+
+        //when
+        Long orderId = orderService.order(member.getId(), List.of(
+                new OrderLineDto(book1.getId(), 2),
+                new OrderLineDto(book2.getId(), 1),
+                new OrderLineDto(book1.getId(), 1)));
 
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+
+        assertThat(getOrder.getOrderItems().size()).isEqualTo(2).as("같은 상품은 한 줄로 합산");
+        assertThat(getOrder.getTotalPrice()).isEqualTo(10000 * 3 + 20000).as("주문 가격은 상품별 가격 * 수량의 합");
+        assertThat(getOrder.getTotalPrice()).isEqualTo(getOrder.calculateTotalPrice()).as("저장된 총액 = 주문상품 합계");
+        assertThat(book1.getStockQuantity()).isEqualTo(7);
+
+        em.flush();
+        em.clear();
+        Long storedTotal = em.createQuery("select o.totalPrice from Order o where o.id = :id", Long.class)
+                .setParameter("id", orderId)
+                .getSingleResult();
+        assertThat(storedTotal).isEqualTo(10000L * 3 + 20000).as("orders.total_price 컬럼에 저장");
+        assertThat(book2.getStockQuantity()).isEqualTo(4);
+
+        OrderSummary summary = em.find(OrderSummary.class, orderId);
+        assertThat(summary.getMemberName()).isEqualTo("회원1");
+        assertThat(summary.getTotalPrice()).isEqualTo(10000 * 3 + 20000).as("주문 요약의 총 금액");
+        assertThat(summary.getItemCount()).isEqualTo(4).as("주문 요약의 수량 합계");
+    }
+
+    @Test
+    void 장바구니_주문_재고수량초과() throws Exception {
+        //given
+        Member member = createMember("회원1", new Address("서울", "증산로", "123-123"));
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("토비 스프링", 20000, 5);
+
+        //then
+        assertThatThrownBy(() -> orderService.order(member.getId(), List.of(
+                new OrderLineDto(book1.getId(), 2),
+                new OrderLineDto(book2.getId(), 6))))
+                .isInstanceOf(NotEnoughStockException.class);
     }
 
     private Item createBook(String name, int price, int stockQuantity) {
@@ -0,0 +1,61 @@
+package jpabook.jpashop.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void 샤드별_고른_분포() throws Exception {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 128);
+
+        //when
+        Map<String, Integer> counts = new HashMap<>();
+        for (long memberId = 1; memberId <= KEYS; memberId++) {
+            counts.merge(ring.shardFor(memberId), 1, Integer::sum);
+        }
+
+        //then
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 3 / 4, KEYS / 4 * 5 / 4));
+    }
+
+    @Test
+    void 샤드_추가시_일부_키만_새_샤드로() throws Exception {
+        //given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 128);
+        ConsistentHashRing after = before.withShard("shard-3");
+
+        //when
+        List<ConsistentHashRing.Move> moves = before.rebalanceTo(after);
+
+        //then
+        int moved = 0;
+        for (long memberId = 1; memberId <= KEYS; memberId++) {
+            String source = before.shardFor(memberId);
+            String target = after.shardFor(memberId);
+            long id = memberId;
+            List<ConsistentHashRing.Move> matched = moves.stream().filter(move -> move.contains(id)).collect(Collectors.toList());
+            if (source.equals(target)) {
+                assertThat(matched).isEmpty();
+            } else {
+                moved++;
+                assertThat(target).isEqualTo("shard-3").as("새 샤드로만 이동");
+                assertThat(matched).singleElement().satisfies(move -> {
+                    assertThat(move.getSource()).isEqualTo(source);
+                    assertThat(move.getTarget()).isEqualTo(target);
+                });
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 4 * 3 / 4, KEYS / 4 * 5 / 4).as("약 1/4 만 이동");
+    }
+}
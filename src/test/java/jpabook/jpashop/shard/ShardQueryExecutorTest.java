@@ -0,0 +1,30 @@
+package jpabook.jpashop.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardQueryExecutorTest {
+
+    @Test
+    void 정렬된_샤드별_결과_합치기() throws Exception {
+        List<Long> merged = ShardQueryExecutor.merge(List.of(
+                List.of(90L, 50L, 10L),
+                List.of(),
+                List.of(80L, 70L, 60L, 5L)), Comparator.<Long>reverseOrder(), 5);
+
+        assertThat(merged).containsExactly(90L, 80L, 70L, 60L, 50L);
+    }
+
+    @Test
+    void limit_보다_결과가_적으면_전부() throws Exception {
+        List<Long> merged = ShardQueryExecutor.merge(List.of(
+                List.of(1L, 3L),
+                List.of(2L)), Comparator.<Long>naturalOrder(), 10);
+
+        assertThat(merged).containsExactly(1L, 2L, 3L);
+    }
+}
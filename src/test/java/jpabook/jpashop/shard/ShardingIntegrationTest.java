@@ -0,0 +1,213 @@
+package jpabook.jpashop.shard;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * H2 메모리 DB 두 개를 샤드로 사용 (shard-0 : 기본 DB, shard-1 : 같은 스키마를 복사)
+ *  - 샤드마다 시퀀스 구간을 나눠서 id 가 겹치지 않게 한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.sharding.enabled=true",
+        "jpashop.sharding.shards[0].jdbc-url=jdbc:h2:mem:sharding_test_1;DB_CLOSE_DELAY=-1",
+        "jpashop.sharding.shards[0].username=sa"})
+class ShardingIntegrationTest {
+
+    private static final String SHARD_0 = ShardingConfig.DEFAULT_SHARD;
+    private static final String SHARD_1 = "shard-1";
+    private static final String PLAN_QUERY = "select distinct o.member.id from Order o";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ConsistentHashRing shardRing;
+
+    @Autowired
+    ShardQueryExecutor shardQueryExecutor;
+
+    @Autowired
+    ShardRebalancer shardRebalancer;
+
+    @BeforeEach
+    void createShardSchema() {
+        Integer tables = ShardContext.callOn(SHARD_1, () -> jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'ORDERS'", Integer.class));
+        if (tables > 0) {
+            return;
+        }
+        List<String> ddl = ShardContext.callOn(SHARD_0, () -> jdbcTemplate.queryForList("script nodata", String.class));
+        ShardContext.callOn(SHARD_1, () -> {
+            ddl.stream()
+                    .filter(sql -> !sql.startsWith("--") && !sql.startsWith("CREATE USER"))
+                    .forEach(jdbcTemplate::execute);
+            for (String sequence : jdbcTemplate.queryForList("select sequence_name from information_schema.sequences", String.class)) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with 1000000");
+            }
+            return null;
+        });
+    }
+
+    @Test
+    void 샤드별_라우팅() throws Exception {
+        //given
+        String name = "샤드1회원-" + System.nanoTime();
+
+        //when
+        placeOrder(SHARD_1, name);
+
+        //then
+        assertThat(countOrdersOf(SHARD_1, name)).isEqualTo(1);
+        assertThat(countOrdersOf(SHARD_0, name)).isEqualTo(0).as("다른 샤드에는 없다.");
+    }
+
+    @Test
+    void 모든_샤드_조회후_합치기() throws Exception {
+        //given
+        String prefix = "scatter-" + System.nanoTime() + "-";
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            orderIds.add(placeOrder(i % 2 == 0 ? SHARD_0 : SHARD_1, prefix + i).getId());
+        }
+
+        //when : 최신 주문 3 개
+        List<Long> latest = shardQueryExecutor.scatterGather(shard -> em.createQuery(
+                                "select o.id from Order o where o.member.name like :prefix order by o.id desc", Long.class)
+                        .setParameter("prefix", prefix + "%")
+                        .setMaxResults(3)
+                        .getResultList(),
+                Comparator.reverseOrder(), 3);
+
+        //then
+        assertThat(latest).containsExactlyElementsOf(orderIds.stream()
+                .sorted(Comparator.reverseOrder())
+                .limit(3)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void 샤드_추가_재배치_계획() throws Exception {
+        //given : 링이 정한 샤드에 주문이 있는 회원
+        String prefix = "rebalance-" + System.nanoTime() + "-";
+        Map<Long, String> memberShards = new HashMap<>();
+        for (int i = 0; memberShards.size() < 30; i++) {
+            Order order = placeOrderOnOwnShard(i % 2 == 0 ? SHARD_0 : SHARD_1, prefix + i);
+            if (order != null) {
+                memberShards.put(order.getMember().getId(), shardRing.shardFor(order.getMember().getId()));
+            }
+        }
+        ConsistentHashRing target = shardRing.withShard("shard-2");
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long planQueriesBefore = statistics.getQueryStatistics(PLAN_QUERY).getExecutionCount();
+
+        //when
+        List<ShardRebalancer.MemberMove> plan = shardRebalancer.plan(target);
+
+        //then
+        Map<Long, ShardRebalancer.MemberMove> ours = plan.stream()
+                .filter(move -> memberShards.containsKey(move.getMemberId()))
+                .collect(Collectors.toMap(ShardRebalancer.MemberMove::getMemberId, move -> move));
+        Set<Long> expected = memberShards.keySet().stream()
+                .filter(memberId -> target.shardFor(memberId).equals("shard-2"))
+                .collect(Collectors.toSet());
+        assertThat(expected).isNotEmpty();
+        assertThat(ours.keySet()).isEqualTo(expected);
+        assertThat(ours.values()).allSatisfy(move -> {
+            assertThat(move.getSource()).isEqualTo(memberShards.get(move.getMemberId()));
+            assertThat(move.getTarget()).isEqualTo("shard-2");
+        });
+        assertThat(statistics.getQueryStatistics(PLAN_QUERY).getExecutionCount() - planQueriesBefore)
+                .isEqualTo(2).as("source 샤드마다 한 번만 조회");
+    }
+
+    @Test
+    void 트랜잭션_안에서는_샤드를_바꿀_수_없다() throws Exception {
+        //given
+        String name = "트랜잭션회원-" + System.nanoTime();
+        placeOrder(SHARD_1, name);
+
+        //when then : 호출한 스레드의 커넥션은 이미 정해져 있다.
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> ShardContext.callOn(SHARD_1, () -> null)))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then : scatter-gather 는 샤드마다 별도 스레드라서 트랜잭션 안에서도 샤드별로 조회
+        List<Long> counts = transactionTemplate.execute(status -> shardQueryExecutor.scatterGather(shard ->
+                        em.createQuery("select count(o) from Order o where o.member.name = :name", Long.class)
+                                .setParameter("name", name)
+                                .getResultList(),
+                Comparator.reverseOrder(), 2));
+        assertThat(counts).containsExactly(1L, 0L);
+    }
+
+    private Order placeOrder(String shard, String memberName) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> createOrder(memberName)));
+    }
+
+    /**
+     * 링이 회원에게 정한 샤드가 아니면 롤백하고 null
+     */
+    private Order placeOrderOnOwnShard(String shard, String memberName) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> {
+            Order order = createOrder(memberName);
+            if (!shardRing.shardFor(order.getMember().getId()).equals(shard)) {
+                status.setRollbackOnly();
+                return null;
+            }
+            return order;
+        }));
+    }
+
+    private Order createOrder(String memberName) {
+        Member member = new Member();
+        member.setName(memberName);
+        member.setAddress(new Address("서울", "증산로", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("샤딩 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1));
+        em.persist(order);
+        return order;
+    }
+
+    private long countOrdersOf(String shard, String memberName) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status ->
+                em.createQuery("select count(o) from Order o where o.member.name = :name", Long.class)
+                        .setParameter("name", memberName)
+                        .getSingleResult()));
+    }
+}